@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.adapter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Text fields of stored entities are held as UTF-8 bytes and decoded when read, which saves the String
+// wrapper per value. Values that tend to repeat across entities (names, descriptions) go through intern:
+// a fixed-size, lossy dedup table that hands out one shared array per value. A miss replaces the slot, so
+// the table never grows and frequent values keep winning it back. Shared arrays are never written to.
+public final class CompactText {
+
+    private static final int TABLE_SIZE = 1 << 16;
+    private static final AtomicReferenceArray<byte[]> TABLE = new AtomicReferenceArray<>(TABLE_SIZE);
+
+    private CompactText() {
+    }
+
+    // For values that are unique per entity, such as logins and emails, where a dedup lookup would only churn
+    public static byte[] encode(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static byte[] intern(String value) {
+        return intern(encode(value));
+    }
+
+    public static byte[] intern(byte[] encoded) {
+        if (encoded == null) {
+            return null;
+        }
+        int hash = Arrays.hashCode(encoded);
+        int slot = (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
+        byte[] shared = TABLE.get(slot);
+        if (shared != null && Arrays.equals(shared, encoded)) {
+            return shared;
+        }
+        TABLE.set(slot, encoded);
+        return encoded;
+    }
+
+    public static String decode(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.adapter;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Packs an id set as its sorted values, each written as the unsigned LEB128 varint of the gap to the
+// previous id. Dense id ranges then cost one byte per id instead of a tagged 64-bit number.
+public final class DeltaVarintCodec {
+
+    private DeltaVarintCodec() {
+    }
+
+    // The set may be a live concurrent one that grows or shrinks while it is iterated, so its size is only
+    // a first guess and the ids actually read are what gets encoded
+    public static byte[] encode(Collection<Long> ids) {
+        long[] sorted = new long[Math.max(ids.size(), 1)];
+        int count = 0;
+        for (Long id : ids) {
+            if (count == sorted.length) {
+                sorted = Arrays.copyOf(sorted, count * 2);
+            }
+            sorted[count++] = id;
+        }
+        Arrays.sort(sorted, 0, count);
+
+        byte[] buffer = new byte[count * 10];
+        int position = 0;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long value = sorted[i] - previous;
+            previous = sorted[i];
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public static long[] decode(byte[] bytes) {
+        long[] ids = new long[bytes.length];
+        int count = 0;
+        long previous = 0;
+        int position = 0;
+        while (position < bytes.length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position == bytes.length || shift > 63) {
+                    throw new IllegalArgumentException("Malformed delta-varint id set");
+                }
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += value;
+            ids[count++] = previous;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.adapter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+public class IdSetDeserializer extends JsonDeserializer<Set<Long>> {
+    @Override
+    public Set<Long> deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
+        if (jsonParser.currentToken() == JsonToken.VALUE_EMBEDDED_OBJECT) {
+            long[] decoded = DeltaVarintCodec.decode(jsonParser.getBinaryValue());
+            Set<Long> ids = new HashSet<>(decoded.length * 2);
+            for (long id : decoded) {
+                ids.add(id);
+            }
+            return ids;
+        }
+        if (jsonParser.currentToken() != JsonToken.START_ARRAY) {
+            return deserializationContext.reportInputMismatch(this, "Expected an array of ids");
+        }
+        Set<Long> ids = new HashSet<>();
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            ids.add(jsonParser.getLongValue());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.adapter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Set;
+
+// Binary formats get the delta-varint packed ids, JSON keeps the plain number array.
+public class IdSetSerializer extends JsonSerializer<Set<Long>> {
+    @Override
+    public void serialize(Set<Long> ids, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        if (jsonGenerator.canWriteBinaryNatively()) {
+            jsonGenerator.writeBinary(DeltaVarintCodec.encode(ids));
+            return;
+        }
+        jsonGenerator.writeStartArray(ids, ids.size());
+        for (Long id : ids) {
+            jsonGenerator.writeNumber(id);
+        }
+        jsonGenerator.writeEndArray();
+    }
+}
@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Sits in front of the dispatcher so rejected requests cost a map lookup. Per route, each client first
+// spends a token from its own bucket (429 when empty), then the request takes a slot under the route's
+// adaptive concurrency limit (503 when full). Requests matching no route pass untouched.
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final byte[] RATE_LIMITED = ("{\"error\":\"Too many requests.\","
+            + "\"description\":\"Request rate limit exceeded\"}").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OVERLOADED = ("{\"error\":\"Service overloaded.\","
+            + "\"description\":\"Concurrency limit reached, retry later\"}").getBytes(StandardCharsets.UTF_8);
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<RouteLimiter> routes = new ArrayList<>();
+    private final String clientHeader;
+    private final AtomicBoolean proxyWarned = new AtomicBoolean();
+
+    public AdmissionControlFilter(AdmissionProperties properties, FilmorateMetrics metrics) {
+        this.clientHeader = properties.getClientHeader();
+        for (Map.Entry<String, AdmissionProperties.Route> route : properties.getRoutes().entrySet()) {
+            routes.add(new RouteLimiter(route.getKey(), route.getValue(), properties.getMaxClients(), metrics));
+            log.info("Admission control for route {}: {}", route.getKey(), route.getValue());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteLimiter route = match(request);
+        if (route == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = route.buckets.bucketFor(clientOf(request), now);
+        if (!bucket.tryAcquire(now)) {
+            route.rateLimited.increment();
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilToken(now) + 999_999_999));
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED);
+            return;
+        }
+        if (!route.concurrency.tryAcquire()) {
+            route.shed.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+            return;
+        }
+
+        route.admitted.increment();
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            route.concurrency.release(System.nanoTime() - start);
+        }
+    }
+
+    private RouteLimiter match(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (RouteLimiter route : routes) {
+            if (route.methods.contains(method)
+                    && route.paths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        } else if (request.getHeader(FORWARDED_FOR) != null && proxyWarned.compareAndSet(false, true)) {
+            log.warn("Requests arrive through a proxy ({} is set) but filmorate.admission.client-header is empty, "
+                    + "so every client behind it shares the proxy's rate limit", FORWARDED_FOR);
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private final class RouteLimiter {
+
+        private final Set<String> methods;
+        private final List<String> paths;
+        private final ClientBuckets buckets;
+        private final AdaptiveConcurrencyLimit concurrency;
+        private final Counter admitted;
+        private final Counter rateLimited;
+        private final Counter shed;
+
+        private RouteLimiter(String name, AdmissionProperties.Route route, int maxClients, FilmorateMetrics metrics) {
+            this.methods = Set.copyOf(route.getMethods());
+            this.paths = List.copyOf(route.getPaths());
+            this.buckets = new ClientBuckets(maxClients, route.getRate(), route.getBurst());
+            this.concurrency = new AdaptiveConcurrencyLimit(route.getLatencyTarget().toNanos(),
+                    route.getMinConcurrency(), route.getMaxConcurrency());
+            this.admitted = metrics.admissionCounter(name, "admitted");
+            this.rateLimited = metrics.admissionCounter(name, "rate_limited");
+            this.shed = metrics.admissionCounter(name, "shed");
+            metrics.gauge("filmorate.admission.limit", concurrency, AdaptiveConcurrencyLimit::getLimit, "route", name);
+            metrics.gauge("filmorate.admission.in_flight", concurrency, AdaptiveConcurrencyLimit::getInFlight,
+                    "route", name);
+            metrics.gauge("filmorate.admission.clients", buckets, ClientBuckets::size, "route", name);
+        }
+    }
+}
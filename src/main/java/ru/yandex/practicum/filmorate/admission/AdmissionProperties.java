@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("filmorate.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Header identifying the client when a trusted gateway sets one; otherwise the remote address is used.
+    // Behind a proxy or load balancer that address is the proxy's, so set this there or all clients share one
+    // bucket; the filter logs a warning once when it sees X-Forwarded-For without it.
+    private String clientHeader = "";
+
+    // Clients tracked per route; beyond this the least recently seen one is dropped
+    private int maxClients = 10_000;
+
+    // Checked in declaration order, the first route matching method and path applies
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        private List<String> methods = List.of("GET");
+        private List<String> paths = List.of();
+        private double rate = 100;
+        private int burst = 200;
+        private Duration latencyTarget = Duration.ofMillis(100);
+        private int minConcurrency = 4;
+        private int maxConcurrency = 64;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Token buckets of the clients a route has seen recently, at most maxClients of them. The clients are split
+// over segments with their own lock, each an access-ordered map that drops its least recently seen client
+// once full, so a lookup and an eviction cost the same however many clients there are. A client evicted and
+// seen again starts with a full bucket; with the cap above the number of clients active at once, only idle
+// clients, whose buckets have refilled by then anyway, are dropped.
+final class ClientBuckets {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final double rate;
+    private final int burst;
+
+    ClientBuckets(int maxClients, double rate, int burst) {
+        this.rate = rate;
+        this.burst = burst;
+        int perSegment = Math.max(1, maxClients / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    TokenBucket bucketFor(String client, long now) {
+        Segment segment = segmentFor(client);
+        segment.lock.lock();
+        try {
+            TokenBucket bucket = segment.buckets.get(client);
+            if (bucket == null) {
+                bucket = new TokenBucket(rate, burst, now);
+                segment.buckets.put(client, bucket);
+            }
+            return bucket;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.buckets.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String client) {
+        int hash = client.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & 0x7fffffff) % SEGMENTS];
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, TokenBucket> buckets;
+
+        private Segment(int capacity) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+}
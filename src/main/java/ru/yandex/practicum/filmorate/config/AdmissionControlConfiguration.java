@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import ru.yandex.practicum.filmorate.admission.AdmissionControlFilter;
+import ru.yandex.practicum.filmorate.admission.AdmissionProperties;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionControlConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "filmorate.admission.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionProperties properties,
+                                                                                  FilmorateMetrics metrics) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(properties, metrics));
+        // Ahead of request logging and the dispatcher, so shedding stays cheap
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
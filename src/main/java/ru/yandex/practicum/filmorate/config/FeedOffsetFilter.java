@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Stamps every write answered by the leader with the feed offset that covers it. A client sends the
+// value back as X-Min-Offset when reading from a follower to get read-your-writes. The offset is taken
+// just before the response is committed, after the handler has published its events.
+public class FeedOffsetFilter extends OncePerRequestFilter {
+
+    public static final String FEED_OFFSET_HEADER = "X-Feed-Offset";
+
+    private final ChangeFeed changeFeed;
+
+    public FeedOffsetFilter(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StampingResponse stamping = new StampingResponse(response);
+        chain.doFilter(request, stamping);
+        stamping.stamp();
+    }
+
+    private final class StampingResponse extends HttpServletResponseWrapper {
+
+        private boolean stamped;
+
+        private StampingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void stamp() {
+            if (!stamped && !isCommitted()) {
+                stamped = true;
+                setHeader(FEED_OFFSET_HEADER, String.valueOf(changeFeed.getNextOffset()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            stamp();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            stamp();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            stamp();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.AntPathMatcher;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.core.BodyFilters;
+import org.zalando.logbook.core.DefaultHttpLogFormatter;
+import org.zalando.logbook.core.DefaultHttpLogWriter;
+import org.zalando.logbook.core.DefaultSink;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+@Slf4j
+@Configuration
+public class HttpLoggingConfiguration {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Bean
+    public Logbook logbook(@Value("${filmorate.logging.http.sample-rate:1.0}") double sampleRate,
+                           @Value("${filmorate.logging.http.max-body-size:1024}") int maxBodySize,
+                           @Value("${filmorate.logging.http.excluded-get-paths:}") List<String> excludedGetPaths) {
+        log.info("HTTP traffic logging: sample rate {}, body size cap {}, GET exclusions {}",
+                sampleRate, maxBodySize, excludedGetPaths);
+        return Logbook.builder()
+                .condition(notExcluded(excludedGetPaths).and(sampled(sampleRate)))
+                .bodyFilter(BodyFilters.truncate(maxBodySize))
+                .sink(new DefaultSink(new DefaultHttpLogFormatter(), new DefaultHttpLogWriter()))
+                .build();
+    }
+
+    private Predicate<HttpRequest> notExcluded(List<String> excludedGetPaths) {
+        return request -> !"GET".equals(request.getMethod())
+                || excludedGetPaths.stream().noneMatch(pattern -> pathMatcher.match(pattern, request.getPath()));
+    }
+
+    private static Predicate<HttpRequest> sampled(double sampleRate) {
+        return request -> sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
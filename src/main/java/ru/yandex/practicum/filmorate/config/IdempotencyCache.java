@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.config;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Outcomes of mutations sent with an Idempotency-Key, kept for a fixed time and bounded in count. Every
+// entry lives equally long, so insertion order is expiry order and purging only ever looks at the head.
+// A key is claimed before its request runs; a concurrent retry of a claimed key sees it in progress. Keys
+// are scoped to the client that sent them, so two clients picking the same key never see each other's
+// responses.
+public class IdempotencyCache {
+
+    public enum Outcome { CLAIMED, REPLAY, IN_PROGRESS, MISMATCH }
+
+    public record StoredResponse(int status, String contentType, String feedOffset, byte[] body) {
+    }
+
+    public record Lookup(Outcome outcome, StoredResponse response) {
+    }
+
+    private final Map<ClientKey, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public IdempotencyCache(long ttlNanos, int maxEntries) {
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+    }
+
+    // The fingerprint identifies the request a key was first used with; reusing the key for another
+    // request is reported instead of replaying an unrelated response
+    public Lookup begin(String client, String key, String fingerprint, long now) {
+        ClientKey clientKey = new ClientKey(client, key);
+        lock.lock();
+        try {
+            purge(now);
+            Entry entry = entries.get(clientKey);
+            if (entry == null) {
+                if (entries.size() >= maxEntries) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+                entries.put(clientKey, new Entry(fingerprint, now));
+                return new Lookup(Outcome.CLAIMED, null);
+            }
+            if (!entry.fingerprint.equals(fingerprint)) {
+                return new Lookup(Outcome.MISMATCH, null);
+            }
+            if (entry.response == null) {
+                return new Lookup(Outcome.IN_PROGRESS, null);
+            }
+            return new Lookup(Outcome.REPLAY, entry.response);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void complete(String client, String key, StoredResponse response) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(new ClientKey(client, key));
+            if (entry != null && entry.response == null) {
+                entry.response = response;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Releases a claim whose request failed in a way worth retrying
+    public void abandon(String client, String key) {
+        ClientKey clientKey = new ClientKey(client, key);
+        lock.lock();
+        try {
+            Entry entry = entries.get(clientKey);
+            if (entry != null && entry.response == null) {
+                entries.remove(clientKey);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void purge(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().createdAt < ttlNanos) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private record ClientKey(String client, String key) {
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final long createdAt;
+        private StoredResponse response;
+
+        private Entry(String fingerprint, long createdAt) {
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+}
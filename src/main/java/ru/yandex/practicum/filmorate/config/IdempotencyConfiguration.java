@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+
+import java.time.Duration;
+
+// Followers redirect writes to the leader, which is where keys have to be remembered
+@Configuration
+@Profile("!reactive & !follower")
+public class IdempotencyConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "filmorate.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+            @Value("${filmorate.idempotency.ttl:PT10M}") Duration ttl,
+            @Value("${filmorate.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${filmorate.idempotency.max-body-size:65536}") int maxBodySize,
+            @Value("${filmorate.admission.client-header:}") String clientHeader,
+            FilmorateMetrics metrics) {
+        IdempotencyCache cache = new IdempotencyCache(ttl.toNanos(), maxEntries);
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(cache, clientHeader, maxBodySize, metrics));
+        // Behind admission control, so retries are still rate limited, and around the feed offset stamp,
+        // so replays carry the original token
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.yandex.practicum.filmorate.config;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Mutations carrying an Idempotency-Key run once: the response is recorded and a retry with the same key
+// gets the recorded status and body back, marked with Idempotent-Replayed. Server errors are not recorded,
+// so such requests stay retryable. Requests without the header pass untouched. A key belongs to the client
+// that sent it, identified the same way admission control does; bodies are buffered for the fingerprint,
+// so they are capped in size.
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final byte[] INVALID_KEY = error("Invalid idempotency key.",
+            "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+    private static final byte[] IN_PROGRESS = error("Request in progress.",
+            "A request with this Idempotency-Key is still being processed");
+    private static final byte[] MISMATCH = error("Idempotency key reused.",
+            "Idempotency-Key was already used for a different request");
+
+    private final IdempotencyCache cache;
+    private final String clientHeader;
+    private final int maxBodySize;
+    private final byte[] tooLarge;
+    private final Counter replayed;
+    private final Counter executed;
+    private final Counter rejected;
+
+    public IdempotencyFilter(IdempotencyCache cache, String clientHeader, int maxBodySize, FilmorateMetrics metrics) {
+        this.cache = cache;
+        this.clientHeader = clientHeader;
+        this.maxBodySize = maxBodySize;
+        this.tooLarge = error("Request too large.",
+                "Requests with an Idempotency-Key are limited to " + maxBodySize + " bytes");
+        this.replayed = metrics.cacheCounter("idempotency", "hit");
+        this.executed = metrics.cacheCounter("idempotency", "miss");
+        this.rejected = metrics.cacheCounter("idempotency", "rejected");
+        metrics.gauge("filmorate.idempotency.entries", cache, IdempotencyCache::size);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(KEY_HEADER) == null
+                || "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            rejected.increment();
+            write(response, HttpStatus.BAD_REQUEST.value(), MediaType.APPLICATION_JSON_VALUE, INVALID_KEY);
+            return;
+        }
+
+        byte[] body = request.getContentLengthLong() > maxBodySize
+                ? null
+                : request.getInputStream().readNBytes(maxBodySize + 1);
+        if (body == null || body.length > maxBodySize) {
+            rejected.increment();
+            write(response, HttpStatus.PAYLOAD_TOO_LARGE.value(), MediaType.APPLICATION_JSON_VALUE, tooLarge);
+            return;
+        }
+
+        String client = clientOf(request);
+        IdempotencyCache.Lookup lookup = cache.begin(client, key, fingerprint(request, body), System.nanoTime());
+        switch (lookup.outcome()) {
+            case REPLAY -> {
+                replayed.increment();
+                IdempotencyCache.StoredResponse stored = lookup.response();
+                response.setHeader(REPLAYED_HEADER, "true");
+                if (stored.feedOffset() != null) {
+                    response.setHeader(FeedOffsetFilter.FEED_OFFSET_HEADER, stored.feedOffset());
+                }
+                write(response, stored.status(), stored.contentType(), stored.body());
+            }
+            case IN_PROGRESS -> {
+                rejected.increment();
+                write(response, HttpStatus.CONFLICT.value(), MediaType.APPLICATION_JSON_VALUE, IN_PROGRESS);
+            }
+            case MISMATCH -> {
+                rejected.increment();
+                write(response, HttpStatus.UNPROCESSABLE_ENTITY.value(), MediaType.APPLICATION_JSON_VALUE, MISMATCH);
+            }
+            case CLAIMED -> {
+                executed.increment();
+                execute(client, key, new BufferedRequest(request, body), response, chain);
+            }
+        }
+    }
+
+    private void execute(String client, String key, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper recording = new ContentCachingResponseWrapper(response);
+        boolean recorded = false;
+        try {
+            chain.doFilter(request, recording);
+            if (recording.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                cache.complete(client, key, new IdempotencyCache.StoredResponse(recording.getStatus(),
+                        recording.getContentType(), recording.getHeader(FeedOffsetFilter.FEED_OFFSET_HEADER),
+                        recording.getContentAsByteArray()));
+                recorded = true;
+            }
+        } finally {
+            if (!recorded) {
+                cache.abandon(client, key);
+            }
+            recording.copyBodyToResponse();
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // A cryptographic digest, so a reused key with a different body cannot pass for the original request
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        String query = request.getQueryString();
+        String target = request.getMethod() + ' ' + request.getRequestURI() + (query != null ? "?" + query : "");
+        return target + '#' + HexFormat.of().formatHex(digest.digest(body));
+    }
+
+    private static void write(HttpServletResponse response, int status, String contentType, byte[] body)
+            throws IOException {
+        response.setStatus(status);
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static byte[] error(String error, String description) {
+        return ("{\"error\":\"" + error + "\",\"description\":\"" + description + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    // The body has to be read up front for the fingerprint, so it is served again from memory
+    private static final class BufferedRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BufferedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Buffered request body is read synchronously");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.storage.FilmPartition;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.HttpFilmPartition;
+import ru.yandex.practicum.filmorate.storage.HttpUserPartition;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.LocalFilmPartition;
+import ru.yandex.practicum.filmorate.storage.LocalUserPartition;
+import ru.yandex.practicum.filmorate.storage.MeteredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.MeteredUserStorage;
+import ru.yandex.practicum.filmorate.storage.PartitionedFilmStorage;
+import ru.yandex.practicum.filmorate.storage.PartitionedUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserPartition;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Shards the storages over consistent-hash partitions. With filmorate.partitions.urls set, every partition
+// is a separate process running the partition-node profile and is reached over HTTP; otherwise count
+// partitions run inside this JVM, so sharding can be exercised and measured on a single machine.
+@Configuration
+@Profile("partitioned")
+public class PartitionedStorageConfiguration {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Bean
+    @Primary
+    public FilmStorage filmStorage(FilmorateMetrics metrics,
+                                   ObjectMapper objectMapper,
+                                   @Value("${filmorate.partitions.count:4}") int partitions,
+                                   @Value("${filmorate.partitions.urls:}") List<String> urls,
+                                   @Value("${filmorate.partitions.timeout:PT5S}") Duration timeout,
+                                   @Value("${filmorate.partitions.virtual-nodes:128}") int virtualNodes) {
+        List<FilmPartition> nodes = new ArrayList<>();
+        if (urls.isEmpty()) {
+            for (int i = 0; i < partitions; i++) {
+                nodes.add(new LocalFilmPartition(new InMemoryFilmStorage()));
+            }
+        } else {
+            for (String url : urls) {
+                nodes.add(new HttpFilmPartition(url.trim(), client, objectMapper, timeout));
+            }
+        }
+        return new MeteredFilmStorage(new PartitionedFilmStorage(nodes, virtualNodes), metrics);
+    }
+
+    @Bean
+    @Primary
+    public UserStorage userStorage(FilmorateMetrics metrics,
+                                   ObjectMapper objectMapper,
+                                   @Value("${filmorate.partitions.count:4}") int partitions,
+                                   @Value("${filmorate.partitions.urls:}") List<String> urls,
+                                   @Value("${filmorate.partitions.timeout:PT5S}") Duration timeout,
+                                   @Value("${filmorate.partitions.virtual-nodes:128}") int virtualNodes) {
+        List<UserPartition> nodes = new ArrayList<>();
+        if (urls.isEmpty()) {
+            for (int i = 0; i < partitions; i++) {
+                nodes.add(new LocalUserPartition(new InMemoryUserStorage()));
+            }
+        } else {
+            for (String url : urls) {
+                nodes.add(new HttpUserPartition(url.trim(), client, objectMapper, timeout));
+            }
+        }
+        return new MeteredUserStorage(new PartitionedUserStorage(nodes, virtualNodes), metrics);
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.yandex.practicum.filmorate.exception.ReplicaUnavailableException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.service.ReplicationFollower;
+
+import java.time.Duration;
+
+// Front door of a follower. Writes are redirected to the leader with 307 so clients resend them unchanged.
+// Reads carrying X-Min-Offset wait until that leader offset has been applied; other reads are refused
+// once the follower has been out of touch with the leader for longer than the staleness bound.
+public class ReplicaReadInterceptor implements HandlerInterceptor {
+
+    public static final String MIN_OFFSET_HEADER = "X-Min-Offset";
+    public static final String REPLICA_OFFSET_HEADER = "X-Replica-Offset";
+    public static final String REPLICA_STALENESS_HEADER = "X-Replica-Staleness-Ms";
+
+    private final ReplicationFollower follower;
+    private final Duration maxStaleness;
+    private final Duration readYourWritesTimeout;
+
+    public ReplicaReadInterceptor(ReplicationFollower follower, Duration maxStaleness, Duration readYourWritesTimeout) {
+        this.follower = follower;
+        this.maxStaleness = maxStaleness;
+        this.readYourWritesTimeout = readYourWritesTimeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            String query = request.getQueryString();
+            response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+            response.setHeader(HttpHeaders.LOCATION,
+                    follower.getLeaderUrl() + request.getRequestURI() + (query != null ? "?" + query : ""));
+            return false;
+        }
+
+        String minOffset = request.getHeader(MIN_OFFSET_HEADER);
+        if (minOffset != null) {
+            long offset = parseOffset(minOffset);
+            if (!follower.awaitOffset(offset, readYourWritesTimeout)) {
+                throw new ReplicaUnavailableException("Replica has applied offset " + follower.getAppliedOffset()
+                        + " but " + offset + " was requested");
+            }
+        } else {
+            Duration staleness = follower.getStaleness();
+            if (staleness.compareTo(maxStaleness) > 0) {
+                throw new ReplicaUnavailableException("Replica is " + staleness.toMillis()
+                        + " ms behind the leader");
+            }
+        }
+        response.setHeader(REPLICA_OFFSET_HEADER, String.valueOf(follower.getAppliedOffset()));
+        response.setHeader(REPLICA_STALENESS_HEADER, String.valueOf(follower.getStaleness().toMillis()));
+        return true;
+    }
+
+    private static long parseOffset(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(MIN_OFFSET_HEADER + " must be a feed offset");
+        }
+    }
+}
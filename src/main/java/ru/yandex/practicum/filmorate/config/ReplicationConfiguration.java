@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+import ru.yandex.practicum.filmorate.service.ReplicationFollower;
+
+import java.time.Duration;
+
+// A process is a leader unless it runs with the follower profile; replication is servlet-only
+@Configuration
+@Profile("!reactive")
+public class ReplicationConfiguration {
+
+    @Bean
+    @Profile("!follower")
+    public FilterRegistrationBean<FeedOffsetFilter> feedOffsetFilter(ChangeFeed changeFeed) {
+        return new FilterRegistrationBean<>(new FeedOffsetFilter(changeFeed));
+    }
+
+    @Bean
+    @Profile("follower")
+    public WebMvcConfigurer replicaReads(ReplicationFollower follower,
+                                         @Value("${filmorate.replication.max-staleness:PT5S}") Duration maxStaleness,
+                                         @Value("${filmorate.replication.read-your-writes-timeout:PT2S}")
+                                         Duration readYourWritesTimeout) {
+        ReplicaReadInterceptor interceptor = new ReplicaReadInterceptor(follower, maxStaleness, readYourWritesTimeout);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).excludePathPatterns("/actuator/**", "/error");
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.MeteredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.MeteredUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+@Configuration
+@Profile("!partitioned & !tiered")
+public class StorageConfiguration {
+
+    @Bean
+    @Primary
+    public FilmStorage filmStorage(InMemoryFilmStorage inMemoryFilmStorage, FilmorateMetrics metrics) {
+        return new MeteredFilmStorage(inMemoryFilmStorage, metrics);
+    }
+
+    @Bean
+    @Primary
+    public UserStorage userStorage(InMemoryUserStorage inMemoryUserStorage, FilmorateMetrics metrics) {
+        return new MeteredUserStorage(inMemoryUserStorage, metrics);
+    }
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.MeteredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.MeteredUserStorage;
+import ru.yandex.practicum.filmorate.storage.TieredFilmStorage;
+import ru.yandex.practicum.filmorate.storage.TieredUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.nio.file.Path;
+
+// Bounds the heap taken by entities: only the hot tier stays resident, everything else lives in spill
+// logs under the configured directory, encoded with the same Smile mapper the API serves.
+@Configuration
+@Profile("tiered")
+public class TieredStorageConfiguration {
+
+    @Bean
+    public TieredFilmStorage tieredFilmStorage(Jackson2ObjectMapperBuilder builder, FilmorateMetrics metrics,
+                                               @Value("${filmorate.tiered.directory}") Path directory,
+                                               @Value("${filmorate.tiered.hot-films:10000}") int hotFilms) {
+        return new TieredFilmStorage(directory, hotFilms, WireFormatConfiguration.smileObjectMapper(builder), metrics);
+    }
+
+    @Bean
+    public TieredUserStorage tieredUserStorage(Jackson2ObjectMapperBuilder builder, FilmorateMetrics metrics,
+                                               @Value("${filmorate.tiered.directory}") Path directory,
+                                               @Value("${filmorate.tiered.hot-users:10000}") int hotUsers) {
+        return new TieredUserStorage(directory, hotUsers, WireFormatConfiguration.smileObjectMapper(builder), metrics);
+    }
+
+    @Bean
+    @Primary
+    public FilmStorage filmStorage(TieredFilmStorage tieredFilmStorage, FilmorateMetrics metrics) {
+        return new MeteredFilmStorage(tieredFilmStorage, metrics);
+    }
+
+    @Bean
+    @Primary
+    public UserStorage userStorage(TieredUserStorage tieredUserStorage, FilmorateMetrics metrics) {
+        return new MeteredUserStorage(tieredUserStorage, metrics);
+    }
+}
@@ -0,0 +1,162 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Runs the hot paths before the readiness probe turns green: Boot only reports ACCEPTING_TRAFFIC once
+// every ApplicationRunner has returned. Synthetic entities drive Jackson and validation in-process, the
+// top-K selection runs as a read-only call on the storage bean, then read-only requests go through the real
+// HTTP stack. The enabled flag is read at run time so the runner stays part of an AOT-processed context.
+@Slf4j
+@Component
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final int SYNTHETIC_FILMS = 200;
+    private static final List<String> READ_PATHS = List.of(
+            "/films", "/films/popular?size=10", "/films/popular?fields=id,name,likeCount",
+            "/users", "/users?fields=", "/films/0");
+
+    private final ObjectMapper objectMapper;
+    private final FilmValidator filmValidator;
+    private final UserValidator userValidator;
+    private final FilmStorage filmStorage;
+    private final FilmorateMetrics metrics;
+    private final Environment environment;
+    private final boolean enabled;
+    private final int iterations;
+    private final int requestsPerPath;
+
+    public WarmupRunner(ObjectMapper objectMapper,
+                        FilmValidator filmValidator,
+                        UserValidator userValidator,
+                        FilmStorage filmStorage,
+                        FilmorateMetrics metrics,
+                        Environment environment,
+                        @Value("${filmorate.warmup.enabled:false}") boolean enabled,
+                        @Value("${filmorate.warmup.iterations:2000}") int iterations,
+                        @Value("${filmorate.warmup.requests-per-path:30}") int requestsPerPath) {
+        this.objectMapper = objectMapper;
+        this.filmValidator = filmValidator;
+        this.userValidator = userValidator;
+        this.filmStorage = filmStorage;
+        this.metrics = metrics;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.requestsPerPath = requestsPerPath;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        exerciseInProcess();
+        exerciseHttp();
+        long warmupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        metrics.gauge("filmorate.startup", warmupMillis, millis -> millis / 1000d, "phase", "warmup");
+        metrics.gauge("filmorate.startup", uptimeMillis, millis -> millis / 1000d, "phase", "ready");
+        log.info("Warm-up finished in {} ms, ready {} ms after JVM start", warmupMillis, uptimeMillis);
+    }
+
+    private void exerciseInProcess() throws IOException {
+        List<Film> films = syntheticFilms();
+        User user = syntheticUser();
+        Set<FilmField> fields = EnumSet.of(FilmField.ID, FilmField.NAME, FilmField.LIKE_COUNT);
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            Film film = films.get(i % films.size());
+            byte[] json = objectMapper.writeValueAsBytes(film);
+            sink += objectMapper.readValue(json, Film.class).getLikes().size();
+            sink += objectMapper.readValue(objectMapper.writeValueAsBytes(user), User.class).getFriends().size();
+            sink += filmValidator.validate(film).size() + userValidator.validate(user).size();
+            sink += FilmSummary.of(film, fields).getLikeCount();
+            if (i % 20 == 0) {
+                sink += objectMapper.writeValueAsBytes(films).length;
+                sink += filmStorage.getMostLikedFilms(10).size();
+            }
+        }
+        log.debug("In-process warm-up checksum {}", sink);
+    }
+
+    private void exerciseHttp() throws InterruptedException {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return;
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        for (String path : READ_PATHS) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            for (int i = 0; i < requestsPerPath; i++) {
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (IOException e) {
+                    log.warn("Warm-up request {} failed: {}", path, e.getMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private static List<Film> syntheticFilms() {
+        List<Film> films = new ArrayList<>(SYNTHETIC_FILMS);
+        for (int i = 0; i < SYNTHETIC_FILMS; i++) {
+            Film film = new Film();
+            film.setId(-i - 1L);
+            film.setName("Warm-up film " + i);
+            film.setDescription("Synthetic film used to warm up serialization");
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i));
+            film.setDuration(Duration.ofMinutes(90 + i % 60));
+            for (long like = 0; like < i % 50; like++) {
+                film.getLikes().add(like * 7 + i);
+            }
+            films.add(film);
+        }
+        return films;
+    }
+
+    private static User syntheticUser() {
+        User user = new User();
+        user.setId(-1L);
+        user.setLogin("warmup");
+        user.setName("Warm-up user");
+        user.setEmail("warmup@example.com");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        for (long friend = 1; friend <= 20; friend++) {
+            user.getFriends().add(friend);
+        }
+        return user;
+    }
+}
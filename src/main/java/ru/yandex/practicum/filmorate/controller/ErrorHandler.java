@@ -1,41 +1,84 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ReplicaUnavailableException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
+// Error bodies are written as raw JSON bytes: the constant part is encoded once and only the
+// description is escaped per response, so no Map or Jackson pass is needed on the error path.
 @RestControllerAdvice
 public class ErrorHandler {
 
-    @ExceptionHandler(NotFoundException.class)
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public Map<String, String> handleNotFoundException(final NotFoundException e) {
-        return Map.of("error", "Could not find entity.",
-                "description", e.getMessage()
-
-        );
-
+    private static final byte[] NOT_FOUND_PREFIX = prefix("Could not find entity.");
+    private static final byte[] VALIDATION_PREFIX = prefix("Entity validation error.");
+    private static final byte[] REPLICA_PREFIX = prefix("Replica unavailable.");
+    private static final byte[] RUNTIME_PREFIX = prefix("Runtime error.");
+    private static final byte[] SUFFIX = "}".getBytes(StandardCharsets.UTF_8);
 
+    @ExceptionHandler(NotFoundException.class)
+    public ResponseEntity<byte[]> handleNotFoundException(final NotFoundException e) {
+        return errorResponse(HttpStatus.NOT_FOUND, NOT_FOUND_PREFIX, e.getMessage());
     }
 
     @ExceptionHandler(ValidationException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public Map<String, String> handleValidationException(final ValidationException e) {
-        return Map.of("error", "Entity validation error.",
-                "description", e.getMessage());
+    public ResponseEntity<byte[]> handleValidationException(final ValidationException e) {
+        return errorResponse(HttpStatus.BAD_REQUEST, VALIDATION_PREFIX, e.getMessage());
+    }
 
+    @ExceptionHandler(ReplicaUnavailableException.class)
+    public ResponseEntity<byte[]> handleReplicaUnavailableException(final ReplicaUnavailableException e) {
+        return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, REPLICA_PREFIX, e.getMessage());
     }
 
     @ExceptionHandler(RuntimeException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public Map<String, String> handleRuntimeException(final RuntimeException e) {
-        return Map.of("error", "Runtime error.",
-                "description", e.getMessage());
+    public ResponseEntity<byte[]> handleRuntimeException(final RuntimeException e) {
+        return errorResponse(HttpStatus.BAD_REQUEST, RUNTIME_PREFIX, e.getMessage());
+    }
+
+    private static ResponseEntity<byte[]> errorResponse(HttpStatus status, byte[] prefix, String description) {
+        byte[] quoted = quote(description).getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[prefix.length + quoted.length + SUFFIX.length];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        System.arraycopy(quoted, 0, body, prefix.length, quoted.length);
+        System.arraycopy(SUFFIX, 0, body, prefix.length + quoted.length, SUFFIX.length);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private static byte[] prefix(String error) {
+        return ("{\"error\":" + quote(error) + ",\"description\":").getBytes(StandardCharsets.UTF_8);
+    }
 
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
     }
 }
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.ChangeFeedPage;
+import ru.yandex.practicum.filmorate.service.ChangeFeed;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RestController
+@RequestMapping("/events")
+@Profile("!reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class EventController {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final Duration MAX_WAIT = Duration.ofSeconds(60);
+    private static final Duration STREAM_POLL = Duration.ofSeconds(15);
+
+    private final ChangeFeed changeFeed;
+
+    @Value("${filmorate.feed.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    // Long-poll: waits up to waitSeconds when the consumer is already at the head of the feed. The wait parks a
+    // virtual thread of its own, like the stream below, so idle consumers do not hold request threads.
+    @GetMapping
+    public DeferredResult<ChangeFeedPage> getEvents(@RequestParam(defaultValue = "0") long offset,
+                                                    @RequestParam(defaultValue = "100") int limit,
+                                                    @RequestParam(defaultValue = "0") int waitSeconds) {
+        if (offset < 0 || limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Offset must not be negative and limit must be between 1 and " + MAX_LIMIT);
+        }
+        Duration requested = Duration.ofSeconds(Math.max(0, waitSeconds));
+        Duration wait = requested.compareTo(MAX_WAIT) > 0 ? MAX_WAIT : requested;
+        // The read returns by itself once the wait is over; the margin only keeps the container from cutting it
+        DeferredResult<ChangeFeedPage> result = new DeferredResult<>(wait.plus(MAX_WAIT).toMillis());
+        Thread.ofVirtual().name("events-long-poll").start(() -> {
+            try {
+                result.setResult(changeFeed.read(offset, limit, wait));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.setErrorResult(e);
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        });
+        return result;
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestParam(defaultValue = "0") long offset,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+
+        long start = lastEventId != null ? lastEventId + 1 : offset;
+        Thread.ofVirtual().name("events-stream").start(() -> {
+            long next = start;
+            try {
+                while (open.get()) {
+                    ChangeFeedPage page = changeFeed.read(next, MAX_LIMIT, STREAM_POLL);
+                    if (page.isTruncated()) {
+                        emitter.send(SseEmitter.event().name("TRUNCATED").data(page.getOldestOffset()));
+                    }
+                    if (page.getEvents().isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                    for (ChangeEvent event : page.getEvents()) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.getOffset()))
+                                .name(event.getType().name())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                    next = page.getNextOffset();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Event stream closed: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+
+}
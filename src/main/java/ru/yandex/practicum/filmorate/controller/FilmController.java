@@ -1,56 +1,90 @@
 package ru.yandex.practicum.filmorate.controller;
 
 
-import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.LikeBatchItem;
+import ru.yandex.practicum.filmorate.model.PopularityEstimate;
+import ru.yandex.practicum.filmorate.model.PopularityWindow;
+import ru.yandex.practicum.filmorate.service.DeletionService;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FilmStatistics;
+import ru.yandex.practicum.filmorate.service.SerializedEntityCache;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 
 
 import java.util.List;
+import java.util.Set;
 
 
 @RestController
 @RequestMapping("/films")
+@Profile("!reactive")
 @Slf4j
 @RequiredArgsConstructor
 public class FilmController {
 
     private final FilmStorage filmStorage;
     private final FilmService filmService;
+    private final DeletionService deletionService;
+    private final FilmStatistics filmStatistics;
+    private final SerializedEntityCache serializedEntityCache;
 
     @GetMapping
     public List<Film> getFilms() {
         return filmStorage.getFilms();
     }
 
+    @GetMapping(params = "fields")
+    public List<FilmSummary> getFilmSummaries(@RequestParam String fields) {
+        return filmStorage.getFilmSummaries(FilmField.fromParameter(fields));
+    }
+
     @GetMapping("/{id}")
     public Film getFilm(@PathVariable("id") long id) {
         return filmStorage.getFilm(id);
     }
 
+    // JSON clients get cached bytes; other formats fall through to the mapping above
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getFilmJson(@PathVariable("id") long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SerializedResponses.of(serializedEntityCache.getFilm(filmStorage.getFilm(id)), acceptEncoding);
+    }
+
     @PostMapping
-    public Film addFilm(@Valid @RequestBody Film film) {
-        filmService.validateFilm(film);
-        return filmStorage.addFilm(film);
+    public Film addFilm(@RequestBody Film film) {
+        return filmService.addFilm(film);
     }
 
     @PutMapping()
-    public Film updateFilm(@Valid @RequestBody Film film) {
-        filmService.validateFilm(film);
-        return filmStorage.updateFilm(film);
+    public Film updateFilm(@RequestBody Film film) {
+        return filmService.updateFilm(film);
+    }
+
+    @DeleteMapping("/{id}")
+    public void deleteFilm(@PathVariable("id") long id) {
+        deletionService.deleteFilm(id);
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -63,9 +97,38 @@ public class FilmController {
         filmService.removeLike(id, userId);
     }
 
+    @PostMapping("/likes:batch")
+    public List<BatchResult> applyLikeBatch(@RequestBody List<LikeBatchItem> items) {
+        return filmService.applyLikeBatch(items);
+    }
+
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int size) {
-        return filmService.getPopularFilms(size);
+    public List<Film> getPopularFilms(@RequestParam(defaultValue = "10") int size,
+                                      @RequestParam(required = false) String window) {
+        if (window == null) {
+            return filmService.getPopularFilms(size);
+        }
+        return filmService.getPopularFilms(size, PopularityWindow.fromParameter(window));
+    }
+
+    @GetMapping(value = "/popular", params = "fields")
+    public List<FilmSummary> getPopularFilmSummaries(@RequestParam(defaultValue = "10") int size,
+                                                     @RequestParam(required = false) String window,
+                                                     @RequestParam String fields) {
+        Set<FilmField> selected = FilmField.fromParameter(fields);
+        return getPopularFilms(size, window).stream()
+                .map(film -> FilmSummary.of(film, selected))
+                .toList();
+    }
+
+    @GetMapping("/popular/estimates")
+    public List<PopularityEstimate> getPopularityEstimates(@RequestParam(defaultValue = "10") int size) {
+        return filmService.getPopularityEstimates(size);
+    }
+
+    @GetMapping("/stats")
+    public FilmStats getFilmStats() {
+        return filmStatistics.getStats();
     }
 
 
@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+import ru.yandex.practicum.filmorate.storage.FilmPartition;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.LocalFilmPartition;
+import ru.yandex.practicum.filmorate.storage.LocalUserPartition;
+import ru.yandex.practicum.filmorate.storage.UserPartition;
+
+import java.util.List;
+
+// Serves this process's in-memory storages as one film and one user partition for a coordinator running
+// the partitioned profile (see HttpFilmPartition and HttpUserPartition). These calls bypass the services:
+// ids, validation, events and the friendship pairing are the coordinator's job.
+@RestController
+@RequestMapping("/partition")
+@Profile("partition-node & !reactive")
+public class PartitionNodeController {
+
+    private final FilmPartition films;
+    private final UserPartition users;
+
+    public PartitionNodeController(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage) {
+        this.films = new LocalFilmPartition(filmStorage);
+        this.users = new LocalUserPartition(userStorage);
+    }
+
+    @GetMapping("/films")
+    public List<Film> getFilms() {
+        return films.getFilms();
+    }
+
+    @GetMapping("/films/summaries")
+    public List<FilmSummary> getFilmSummaries(@RequestParam String fields) {
+        return films.getFilmSummaries(FilmField.fromParameter(fields));
+    }
+
+    @GetMapping("/films/popular")
+    public List<Film> getMostLikedFilms(@RequestParam int size) {
+        return films.getMostLikedFilms(size);
+    }
+
+    @GetMapping("/films/{id}")
+    public Film getFilm(@PathVariable long id) {
+        return films.findFilm(id).orElseThrow(() -> notFound("Film", id));
+    }
+
+    @PostMapping("/films")
+    public Film insertFilm(@RequestBody Film film) {
+        return films.insertFilm(film);
+    }
+
+    @GetMapping("/films/max-id")
+    public long getMaxFilmId() {
+        return films.getMaxFilmId();
+    }
+
+    @PutMapping("/films")
+    public Film updateFilm(@RequestBody Film film) {
+        return films.updateFilm(film);
+    }
+
+    @PutMapping("/films/replica")
+    public boolean replicateFilm(@RequestBody Film film) {
+        return films.replicateFilm(film);
+    }
+
+    @DeleteMapping("/films/{id}")
+    public Film deleteFilm(@PathVariable long id) {
+        return films.deleteFilm(id);
+    }
+
+    @PutMapping("/films/{id}/likes/{userId}")
+    public boolean addLike(@PathVariable long id, @PathVariable long userId) {
+        return films.addLike(id, userId);
+    }
+
+    @DeleteMapping("/films/{id}/likes/{userId}")
+    public boolean removeLike(@PathVariable long id, @PathVariable long userId) {
+        return films.removeLike(id, userId);
+    }
+
+    @GetMapping("/users")
+    public List<User> getUsers() {
+        return users.getUsers();
+    }
+
+    @GetMapping("/users/summaries")
+    public List<UserSummary> getUserSummaries(@RequestParam String fields) {
+        return users.getUserSummaries(UserField.fromParameter(fields));
+    }
+
+    @GetMapping("/users/{id}")
+    public User getUser(@PathVariable long id) {
+        return users.findUser(id).orElseThrow(() -> notFound("User", id));
+    }
+
+    @PostMapping("/users")
+    public User insertUser(@RequestBody User user) {
+        return users.insertUser(user);
+    }
+
+    @GetMapping("/users/max-id")
+    public long getMaxUserId() {
+        return users.getMaxUserId();
+    }
+
+    @PutMapping("/users")
+    public User updateUser(@RequestBody User user) {
+        return users.updateUser(user);
+    }
+
+    @PutMapping("/users/replica")
+    public boolean replicateUser(@RequestBody User user) {
+        return users.replicateUser(user);
+    }
+
+    @DeleteMapping("/users/{id}")
+    public User deleteUser(@PathVariable long id) {
+        return users.deleteUser(id);
+    }
+
+    @PutMapping("/users/{id}/friends/{friendId}")
+    public boolean linkFriend(@PathVariable long id, @PathVariable long friendId) {
+        return users.linkFriend(id, friendId);
+    }
+
+    @DeleteMapping("/users/{id}/friends/{friendId}")
+    public boolean unlinkFriend(@PathVariable long id, @PathVariable long friendId) {
+        return users.unlinkFriend(id, friendId);
+    }
+
+    @PostMapping("/users/{id}/friends/{friendId}/detach")
+    public boolean detachFriend(@PathVariable long id, @PathVariable long friendId) {
+        return users.detachFriend(id, friendId);
+    }
+
+    private static NotFoundException notFound(String entity, long id) {
+        return new NotFoundException(entity + " with id " + id + " not found");
+    }
+}
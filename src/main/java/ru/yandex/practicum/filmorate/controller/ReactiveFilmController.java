@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.controller;
+
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.LikeBatchItem;
+import ru.yandex.practicum.filmorate.model.PopularityEstimate;
+import ru.yandex.practicum.filmorate.model.PopularityWindow;
+import ru.yandex.practicum.filmorate.service.DeletionService;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FilmStatistics;
+import ru.yandex.practicum.filmorate.service.SerializedEntityCache;
+import ru.yandex.practicum.filmorate.storage.ReactiveFilmStorage;
+
+import java.util.List;
+import java.util.Set;
+
+
+// Services block on stripe locks and sort the catalog, so every call is subscribed on the bounded elastic
+// pool and the event loop only writes responses
+@RestController
+@RequestMapping("/films")
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveFilmController {
+
+    private final ReactiveFilmStorage filmStorage;
+    private final FilmService filmService;
+    private final DeletionService deletionService;
+    private final FilmStatistics filmStatistics;
+    private final SerializedEntityCache serializedEntityCache;
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Film> getFilms() {
+        return filmStorage.getFilms();
+    }
+
+    @GetMapping(params = "fields", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<FilmSummary> getFilmSummaries(@RequestParam String fields) {
+        return Flux.defer(() -> filmStorage.getFilmSummaries(FilmField.fromParameter(fields)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Film> getFilm(@PathVariable("id") long id) {
+        return filmStorage.getFilm(id);
+    }
+
+    // JSON clients get cached bytes; other formats fall through to the mapping above
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getFilmJson(@PathVariable("id") long id,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return filmStorage.getFilm(id)
+                .map(film -> SerializedResponses.of(serializedEntityCache.getFilm(film), acceptEncoding));
+    }
+
+    @PostMapping
+    public Mono<Film> addFilm(@RequestBody Film film) {
+        return Mono.fromCallable(() -> filmService.addFilm(film))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping()
+    public Mono<Film> updateFilm(@RequestBody Film film) {
+        return Mono.fromCallable(() -> filmService.updateFilm(film))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteFilm(@PathVariable("id") long id) {
+        return Mono.fromRunnable(() -> deletionService.deleteFilm(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public Mono<Void> addLike(@PathVariable("id") long id, @PathVariable("userId") long userId) {
+        return Mono.fromRunnable(() -> filmService.addLike(id, userId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public Mono<Void> removeLike(@PathVariable("id") long id, @PathVariable("userId") long userId) {
+        return Mono.fromRunnable(() -> filmService.removeLike(id, userId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/likes:batch")
+    public Mono<List<BatchResult>> applyLikeBatch(@RequestBody List<LikeBatchItem> items) {
+        return Mono.fromCallable(() -> filmService.applyLikeBatch(items))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/popular")
+    public Flux<Film> getPopularFilms(@RequestParam(defaultValue = "10") int size,
+                                      @RequestParam(required = false) String window) {
+        return Flux.defer(() -> Flux.fromIterable(window == null
+                ? filmService.getPopularFilms(size)
+                : filmService.getPopularFilms(size, PopularityWindow.fromParameter(window))))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/popular", params = "fields")
+    public Flux<FilmSummary> getPopularFilmSummaries(@RequestParam(defaultValue = "10") int size,
+                                                     @RequestParam(required = false) String window,
+                                                     @RequestParam String fields) {
+        return Flux.defer(() -> {
+            Set<FilmField> selected = FilmField.fromParameter(fields);
+            return getPopularFilms(size, window).map(film -> FilmSummary.of(film, selected));
+        });
+    }
+
+    @GetMapping("/popular/estimates")
+    public Flux<PopularityEstimate> getPopularityEstimates(@RequestParam(defaultValue = "10") int size) {
+        return Flux.defer(() -> Flux.fromIterable(filmService.getPopularityEstimates(size)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/stats")
+    public Mono<FilmStats> getFilmStats() {
+        return Mono.fromSupplier(filmStatistics::getStats)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+
+}
@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.CountResult;
+import ru.yandex.practicum.filmorate.model.FriendBatchItem;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserPage;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+import ru.yandex.practicum.filmorate.service.DeletionService;
+import ru.yandex.practicum.filmorate.service.SerializedEntityCache;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.ReactiveUserStorage;
+
+import java.util.List;
+import java.util.Set;
+
+
+// Services block on stripe locks and copy collections, so every call is subscribed on the bounded elastic
+// pool and the event loop only writes responses
+@RestController
+@RequestMapping("/users")
+@Profile("reactive")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserController {
+
+    private final ReactiveUserStorage userStorage;
+    private final UserService userService;
+    private final DeletionService deletionService;
+    private final SerializedEntityCache serializedEntityCache;
+
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getUsers() {
+        return userStorage.getUsers();
+    }
+
+    @GetMapping(params = "fields", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserSummary> getUserSummaries(@RequestParam String fields) {
+        return Flux.defer(() -> userStorage.getUserSummaries(UserField.fromParameter(fields)));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<User> getUser(@PathVariable("id") long id) {
+        return userStorage.getUser(id);
+    }
+
+    // JSON clients get cached bytes; other formats fall through to the mapping above
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getUserJson(@PathVariable("id") long id,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return userStorage.getUser(id)
+                .map(user -> SerializedResponses.of(serializedEntityCache.getUser(user), acceptEncoding));
+    }
+
+    @PostMapping
+    public Mono<User> addUser(@RequestBody User user) {
+        return Mono.fromCallable(() -> userService.addUser(user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping()
+    public Mono<User> updateUser(@RequestBody User user) {
+        return Mono.fromCallable(() -> userService.updateUser(user))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<Void> deleteUser(@PathVariable("id") long id) {
+        return Mono.fromRunnable(() -> deletionService.deleteUser(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public Mono<Void> addFriend(@PathVariable("id") long id, @PathVariable("friendId") long friendId) {
+        return Mono.fromRunnable(() -> userService.addFriend(id, friendId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @PostMapping("/{id}/friends:batch")
+    public Mono<List<BatchResult>> applyFriendBatch(@PathVariable("id") long id,
+                                                    @RequestBody List<FriendBatchItem> items) {
+        return Mono.fromCallable(() -> userService.applyFriendBatch(id, items))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/{id}/friends", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    // Streams the friends off the sorted id set, each looked up only when the client is ready for it
+    public Flux<User> getFriends(@PathVariable("id") long id) {
+        return Mono.fromCallable(() -> userService.getFriendIds(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany(userStorage::findUsers);
+    }
+
+    @GetMapping(value = "/{id}/friends", params = "fields",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserSummary> getFriendSummaries(@PathVariable("id") long id, @RequestParam String fields) {
+        return Flux.defer(() -> {
+            Set<UserField> selected = UserField.fromParameter(fields);
+            return getFriends(id).map(user -> UserSummary.of(user, selected));
+        });
+    }
+
+    @GetMapping("/{id}/friends/page")
+    public Mono<UserPage> getFriendPage(@PathVariable("id") long id,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "100") int limit,
+                                        @RequestParam(required = false) String fields) {
+        return Mono.fromSupplier(() -> userService.getFriendPage(id, cursor, limit, UserField.fromParameter(fields)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}/friends/count")
+    public Mono<CountResult> countFriends(@PathVariable("id") long id) {
+        return Mono.fromSupplier(() -> userService.countFriends(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public Mono<Void> removeFriend(@PathVariable("id") long id, @PathVariable("friendId") long friendId) {
+        return Mono.fromRunnable(() -> userService.removeFriend(id, friendId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public Flux<User> showCommonFriends(@PathVariable("id") long id, @PathVariable("otherId") long otherId) {
+        return Flux.defer(() -> Flux.fromIterable(userService.showCommonFriends(id, otherId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping(value = "/{id}/friends/common/{otherId}", params = "fields")
+    public Flux<UserSummary> showCommonFriendSummaries(@PathVariable("id") long id,
+                                                       @PathVariable("otherId") long otherId,
+                                                       @RequestParam String fields) {
+        return Flux.defer(() -> {
+            Set<UserField> selected = UserField.fromParameter(fields);
+            return showCommonFriends(id, otherId).map(user -> UserSummary.of(user, selected));
+        });
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}/page")
+    public Mono<UserPage> getCommonFriendPage(@PathVariable("id") long id,
+                                              @PathVariable("otherId") long otherId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "100") int limit,
+                                              @RequestParam(required = false) String fields) {
+        return Mono.fromSupplier(() ->
+                userService.getCommonFriendPage(id, otherId, cursor, limit, UserField.fromParameter(fields)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}/count")
+    public Mono<CountResult> countCommonFriends(@PathVariable("id") long id,
+                                                @PathVariable("otherId") long otherId) {
+        return Mono.fromSupplier(() -> userService.countCommonFriends(id, otherId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+
+}
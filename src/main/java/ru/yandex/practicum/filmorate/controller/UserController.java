@@ -1,32 +1,49 @@
 package ru.yandex.practicum.filmorate.controller;
 
-import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.CountResult;
+import ru.yandex.practicum.filmorate.model.FriendBatchItem;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserPage;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+import ru.yandex.practicum.filmorate.service.DeletionService;
+import ru.yandex.practicum.filmorate.service.SerializedEntityCache;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/users")
+@Profile("!reactive")
 @Slf4j
 @RequiredArgsConstructor
 public class UserController {
 
     private final UserStorage userStorage;
     private final UserService userService;
+    private final DeletionService deletionService;
+    private final SerializedEntityCache serializedEntityCache;
 
 
     @GetMapping
@@ -34,21 +51,36 @@ public class UserController {
         return userStorage.getUsers();
     }
 
+    @GetMapping(params = "fields")
+    public List<UserSummary> getUserSummaries(@RequestParam String fields) {
+        return userStorage.getUserSummaries(UserField.fromParameter(fields));
+    }
+
     @GetMapping("/{id}")
     public User getUser(@PathVariable("id") long id) {
         return userStorage.getUser(id);
     }
 
+    // JSON clients get cached bytes; other formats fall through to the mapping above
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getUserJson(@PathVariable("id") long id,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return SerializedResponses.of(serializedEntityCache.getUser(userStorage.getUser(id)), acceptEncoding);
+    }
+
     @PostMapping
-    public User addUser(@Valid @RequestBody User user) {
-        userService.validateUser(user);
-        return userStorage.addUser(user);
+    public User addUser(@RequestBody User user) {
+        return userService.addUser(user);
     }
 
     @PutMapping()
-    public User updateUser(@Valid @RequestBody User user) {
-        userService.validateUser(user);
-        return userStorage.updateUser(user);
+    public User updateUser(@RequestBody User user) {
+        return userService.updateUser(user);
+    }
+
+    @DeleteMapping("/{id}")
+    public void deleteUser(@PathVariable("id") long id) {
+        deletionService.deleteUser(id);
     }
 
     @PutMapping("/{id}/friends/{friendId}")
@@ -56,11 +88,34 @@ public class UserController {
         userService.addFriend(id, friendId);
     }
 
+    @PostMapping("/{id}/friends:batch")
+    public List<BatchResult> applyFriendBatch(@PathVariable("id") long id, @RequestBody List<FriendBatchItem> items) {
+        return userService.applyFriendBatch(id, items);
+    }
+
     @GetMapping("/{id}/friends")
     public List<User> getFriends(@PathVariable("id") long id) {
         return userService.getFriends(id);
     }
 
+    @GetMapping(value = "/{id}/friends", params = "fields")
+    public List<UserSummary> getFriendSummaries(@PathVariable("id") long id, @RequestParam String fields) {
+        return summaries(userService.getFriends(id), fields);
+    }
+
+    @GetMapping("/{id}/friends/page")
+    public UserPage getFriendPage(@PathVariable("id") long id,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(defaultValue = "100") int limit,
+                                  @RequestParam(required = false) String fields) {
+        return userService.getFriendPage(id, cursor, limit, UserField.fromParameter(fields));
+    }
+
+    @GetMapping("/{id}/friends/count")
+    public CountResult countFriends(@PathVariable("id") long id) {
+        return userService.countFriends(id);
+    }
+
     @DeleteMapping("/{id}/friends/{friendId}")
     public void removeFriend(@PathVariable("id") long id, @PathVariable("friendId") long friendId) {
         userService.removeFriend(id, friendId);
@@ -71,6 +126,33 @@ public class UserController {
         return userService.showCommonFriends(id, otherId);
     }
 
+    @GetMapping(value = "/{id}/friends/common/{otherId}", params = "fields")
+    public List<UserSummary> showCommonFriendSummaries(@PathVariable("id") long id,
+                                                       @PathVariable("otherId") long otherId,
+                                                       @RequestParam String fields) {
+        return summaries(userService.showCommonFriends(id, otherId), fields);
+    }
 
-}
+    @GetMapping("/{id}/friends/common/{otherId}/page")
+    public UserPage getCommonFriendPage(@PathVariable("id") long id,
+                                        @PathVariable("otherId") long otherId,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "100") int limit,
+                                        @RequestParam(required = false) String fields) {
+        return userService.getCommonFriendPage(id, otherId, cursor, limit, UserField.fromParameter(fields));
+    }
 
+    @GetMapping("/{id}/friends/common/{otherId}/count")
+    public CountResult countCommonFriends(@PathVariable("id") long id, @PathVariable("otherId") long otherId) {
+        return userService.countCommonFriends(id, otherId);
+    }
+
+    private static List<UserSummary> summaries(List<User> users, String fields) {
+        Set<UserField> selected = UserField.fromParameter(fields);
+        return users.stream()
+                .map(user -> UserSummary.of(user, selected))
+                .toList();
+    }
+
+
+}
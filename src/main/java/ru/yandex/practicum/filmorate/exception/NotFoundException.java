@@ -1,8 +1,9 @@
 package ru.yandex.practicum.filmorate.exception;
 
 
+// Misses are routine (unknown ids from clients and crawlers), so no stack trace is captured
 public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.exception;
+
+
+// Thrown by a follower that is too far behind its leader to answer a read within the promised staleness
+public class ReplicaUnavailableException extends RuntimeException {
+    public ReplicaUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+// Meters are created once and kept in fields: the hot path is two System.nanoTime() calls and a
+// lock-free histogram update, without registry lookups or tag allocation per call.
+@Component
+public class FilmorateMetrics {
+
+    private final MeterRegistry registry;
+    private final AtomicLong films = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong likes = new AtomicLong();
+    private final AtomicLong friendships = new AtomicLong();
+    private final Counter likesAdded;
+    private final Counter likesRemoved;
+    private final Counter friendshipsAdded;
+    private final Counter friendshipsRemoved;
+    private final Timer popularFilms;
+    private final Timer commonFriends;
+
+    public FilmorateMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("filmorate.entities", films, AtomicLong::get).tag("type", "film").register(registry);
+        Gauge.builder("filmorate.entities", users, AtomicLong::get).tag("type", "user").register(registry);
+        Gauge.builder("filmorate.edges", likes, AtomicLong::get).tag("type", "like").register(registry);
+        Gauge.builder("filmorate.edges", friendships, AtomicLong::get).tag("type", "friendship").register(registry);
+        likesAdded = counter("filmorate.likes", "added");
+        likesRemoved = counter("filmorate.likes", "removed");
+        friendshipsAdded = counter("filmorate.friendships", "added");
+        friendshipsRemoved = counter("filmorate.friendships", "removed");
+        popularFilms = timer("filmorate.service", "getPopularFilms");
+        commonFriends = timer("filmorate.service", "showCommonFriends");
+    }
+
+    public Timer timer(String name, String operation) {
+        return Timer.builder(name)
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(registry);
+    }
+
+    public Counter notFoundCounter(String entity) {
+        return Counter.builder("filmorate.not_found")
+                .tag("entity", entity)
+                .register(registry);
+    }
+
+    public Counter cacheCounter(String cache, String result) {
+        return Counter.builder("filmorate.cache")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public <T> void gauge(String name, T source, ToDoubleFunction<T> value, String... tags) {
+        Gauge.builder(name, source, value).tags(tags).strongReference(true).register(registry);
+    }
+
+    public Counter admissionCounter(String route, String result) {
+        return Counter.builder("filmorate.admission")
+                .tag("route", route)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public void filmAdded() {
+        films.incrementAndGet();
+    }
+
+    public void userAdded() {
+        users.incrementAndGet();
+    }
+
+    public void filmRemoved() {
+        films.decrementAndGet();
+    }
+
+    public void userRemoved() {
+        users.decrementAndGet();
+    }
+
+    public void likeAdded() {
+        likes.incrementAndGet();
+        likesAdded.increment();
+    }
+
+    public void likeRemoved() {
+        likes.decrementAndGet();
+        likesRemoved.increment();
+    }
+
+    // Likes that went away with their film in one step
+    public void likesRemoved(int count) {
+        likes.addAndGet(-count);
+        likesRemoved.increment(count);
+    }
+
+    public void friendshipAdded() {
+        friendships.incrementAndGet();
+        friendshipsAdded.increment();
+    }
+
+    public void friendshipRemoved() {
+        friendships.decrementAndGet();
+        friendshipsRemoved.increment();
+    }
+
+    public Timer popularFilms() {
+        return popularFilms;
+    }
+
+    public Timer commonFriends() {
+        return commonFriends;
+    }
+
+    private Counter counter(String name, String result) {
+        return Counter.builder(name)
+                .tag("result", result)
+                .register(registry);
+    }
+}
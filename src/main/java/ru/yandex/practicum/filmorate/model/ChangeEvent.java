@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.Instant;
+
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEvent {
+    private long offset;
+    private ChangeType type;
+    private Instant timestamp;
+    private long entityId;
+    private Long relatedId;
+    private Film film;
+    private User user;
+
+
+}
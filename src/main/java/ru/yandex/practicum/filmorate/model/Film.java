@@ -3,36 +3,75 @@ package ru.yandex.practicum.filmorate.model;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import ru.yandex.practicum.filmorate.adapter.CompactText;
 import ru.yandex.practicum.filmorate.adapter.DurationToMinutesSerializer;
+import ru.yandex.practicum.filmorate.adapter.IdSetDeserializer;
+import ru.yandex.practicum.filmorate.adapter.IdSetSerializer;
 import ru.yandex.practicum.filmorate.adapter.MinutesToDurationDeserializer;
 
 
 import java.time.Duration;
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 @Data
+@EqualsAndHashCode(doNotUseGetters = true)
 public class Film {
     private long id;
-    @NotNull
-    @NotBlank
-    @NotEmpty
-    private String name;
-    private String description;
-    @NotNull
+    // UTF-8, see CompactText; the getters decode, equality compares the bytes
+    @ToString.Exclude
+    private byte[] name;
+    @ToString.Exclude
+    private byte[] description;
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate releaseDate;
-    @NotNull
     @JsonSerialize(using = DurationToMinutesSerializer.class)
     @JsonDeserialize(using = MinutesToDurationDeserializer.class)
     private Duration duration;
-    private Set<Long> likes = new HashSet<>();
+    @JsonSerialize(using = IdSetSerializer.class)
+    @JsonDeserialize(using = IdSetDeserializer.class)
+    private Set<Long> likes = ConcurrentHashMap.newKeySet();
+
+    @ToString.Include(name = "name")
+    public String getName() {
+        return CompactText.decode(name);
+    }
+
+    public void setName(String name) {
+        this.name = CompactText.intern(name);
+    }
+
+    @ToString.Include(name = "description")
+    public String getDescription() {
+        return CompactText.decode(description);
+    }
+
+    public void setDescription(String description) {
+        this.description = CompactText.intern(description);
+    }
+
+    public void setLikes(Set<Long> likes) {
+        this.likes = ConcurrentHashMap.newKeySet();
+        if (likes != null) {
+            this.likes.addAll(likes);
+        }
+    }
+
+    // The film's own fields with an empty like set; the text bytes are never mutated, so they are shared
+    public Film copyWithoutLikes() {
+        Film copy = new Film();
+        copy.id = id;
+        copy.name = name;
+        copy.description = description;
+        copy.releaseDate = releaseDate;
+        copy.duration = duration;
+        return copy;
+    }
 
 
 }
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+
+public enum FilmField {
+    ID("id"),
+    NAME("name"),
+    DESCRIPTION("description"),
+    RELEASE_DATE("releaseDate"),
+    DURATION("duration"),
+    LIKE_COUNT("likeCount");
+
+    private final String parameter;
+
+    FilmField(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    // A blank selection means the whole summary
+    public static Set<FilmField> fromParameter(String parameter) {
+        if (parameter == null || parameter.isBlank()) {
+            return EnumSet.allOf(FilmField.class);
+        }
+        Set<FilmField> fields = EnumSet.noneOf(FilmField.class);
+        for (String name : parameter.split(",")) {
+            fields.add(fromName(name.trim()));
+        }
+        return fields;
+    }
+
+    private static FilmField fromName(String name) {
+        for (FilmField field : values()) {
+            if (field.parameter.equals(name)) {
+                return field;
+            }
+        }
+        throw new ValidationException("Unknown film field " + name);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+
+@Data
+@AllArgsConstructor
+public class FilmStats {
+    private long films;
+    private long totalLikes;
+    private double averageLikes;
+    private long maxLikes;
+    // Power-of-two buckets of like counts: 0, 1, 2-3, 4-7, ...; empty buckets are left out
+    private List<LikeCountBucket> likeDistribution;
+    private Map<Integer, Long> filmsPerReleaseYear;
+
+
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.Data;
+import ru.yandex.practicum.filmorate.adapter.DurationToMinutesSerializer;
+import ru.yandex.practicum.filmorate.adapter.MinutesToDurationDeserializer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+
+
+// Read-only view of a film with the like count in place of the like set. Fields outside the
+// requested selection stay null and are left out of the response.
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FilmSummary {
+    private Long id;
+    private String name;
+    private String description;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate releaseDate;
+    @JsonSerialize(using = DurationToMinutesSerializer.class)
+    @JsonDeserialize(using = MinutesToDurationDeserializer.class)
+    private Duration duration;
+    private Integer likeCount;
+
+    public static FilmSummary of(Film film, Set<FilmField> fields) {
+        FilmSummary summary = new FilmSummary();
+        for (FilmField field : fields) {
+            switch (field) {
+                case ID -> summary.id = film.getId();
+                case NAME -> summary.name = film.getName();
+                case DESCRIPTION -> summary.description = film.getDescription();
+                case RELEASE_DATE -> summary.releaseDate = film.getReleaseDate();
+                case DURATION -> summary.duration = film.getDuration();
+                case LIKE_COUNT -> summary.likeCount = film.getLikes().size();
+            }
+        }
+        return summary;
+    }
+
+
+}
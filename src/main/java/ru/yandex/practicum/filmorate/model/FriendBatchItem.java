@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+
+@Data
+public class FriendBatchItem {
+    private long friendId;
+    private BatchAction action;
+
+
+}
@@ -0,0 +1,13 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+
+@Data
+public class LikeBatchItem {
+    private long filmId;
+    private long userId;
+    private BatchAction action;
+
+
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+
+@Data
+@AllArgsConstructor
+public class LikeCountBucket {
+    private long minLikes;
+    private long maxLikes;
+    private long films;
+
+
+}
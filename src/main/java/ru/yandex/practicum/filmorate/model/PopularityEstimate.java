@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+
+@Data
+@AllArgsConstructor
+public class PopularityEstimate {
+    private long filmId;
+    private long likes;
+    private long maxOverestimate;
+    private long uniqueLikers;
+    private double uniqueLikersStandardError;
+
+
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.Duration;
+
+
+public enum PopularityWindow {
+    DAY("24h", Duration.ofHours(24)),
+    WEEK("7d", Duration.ofDays(7));
+
+    private final String parameter;
+    private final Duration duration;
+
+    PopularityWindow(String parameter, Duration duration) {
+        this.parameter = parameter;
+        this.duration = duration;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public static PopularityWindow fromParameter(String parameter) {
+        for (PopularityWindow window : values()) {
+            if (window.parameter.equalsIgnoreCase(parameter)) {
+                return window;
+            }
+        }
+        throw new ValidationException("Unknown popularity window " + parameter + ", expected 24h or 7d");
+    }
+}
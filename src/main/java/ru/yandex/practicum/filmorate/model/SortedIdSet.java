@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Concurrent id set kept in ascending order, so a page of ids after a cursor is a seek plus a walk of the
+// page. The skip list counts its nodes on every size() call, hence the separate counter.
+public class SortedIdSet extends AbstractSet<Long> {
+
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public SortedIdSet() {
+    }
+
+    public SortedIdSet(Collection<Long> ids) {
+        addAll(ids);
+    }
+
+    @Override
+    public boolean add(Long id) {
+        if (!ids.add(id)) {
+            return false;
+        }
+        size.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object id) {
+        if (!(id instanceof Long) || !ids.remove(id)) {
+            return false;
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object id) {
+        return id instanceof Long && ids.contains(id);
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ids.isEmpty();
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        Iterator<Long> iterator = ids.iterator();
+        return new Iterator<>() {
+            private Long current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Long next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                SortedIdSet.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    // Read-only ascending view of the ids strictly greater than the given one
+    public Iterable<Long> after(long id) {
+        NavigableSet<Long> tail = ids.tailSet(id, false);
+        return tail::iterator;
+    }
+}
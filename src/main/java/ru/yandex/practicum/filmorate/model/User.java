@@ -1,34 +1,86 @@
 package ru.yandex.practicum.filmorate.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 
-import jakarta.validation.constraints.Email;
-import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import ru.yandex.practicum.filmorate.adapter.CompactText;
+import ru.yandex.practicum.filmorate.adapter.IdSetDeserializer;
+import ru.yandex.practicum.filmorate.adapter.IdSetSerializer;
 
 
 import java.time.LocalDate;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Set;
 
 
 @Data
+@EqualsAndHashCode(doNotUseGetters = true)
 public class User {
     private long id;
-    private String name;
-    @Email
-    private String email;
-    @NotNull
-    @NotBlank
-    @NotEmpty
-    private String login;
-    @NotNull
+    // UTF-8, see CompactText; the getters decode, equality compares the bytes
+    @ToString.Exclude
+    private byte[] name;
+    @ToString.Exclude
+    private byte[] email;
+    @ToString.Exclude
+    private byte[] login;
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate birthday;
-    private Set<Long> friends = new HashSet<>();
+    @JsonSerialize(using = IdSetSerializer.class)
+    @JsonDeserialize(using = IdSetDeserializer.class)
+    private SortedIdSet friends = new SortedIdSet();
+
+    @ToString.Include(name = "name")
+    public String getName() {
+        return CompactText.decode(name);
+    }
+
+    // A name equal to the login, as the service fills in for a blank name, shares the login's bytes
+    public void setName(String name) {
+        byte[] encoded = CompactText.encode(name);
+        this.name = Arrays.equals(encoded, login) ? login : CompactText.intern(encoded);
+    }
+
+    @ToString.Include(name = "email")
+    public String getEmail() {
+        return CompactText.decode(email);
+    }
+
+    public void setEmail(String email) {
+        this.email = CompactText.encode(email);
+    }
+
+    @ToString.Include(name = "login")
+    public String getLogin() {
+        return CompactText.decode(login);
+    }
+
+    public void setLogin(String login) {
+        this.login = CompactText.encode(login);
+        if (Arrays.equals(name, this.login)) {
+            this.name = this.login;
+        }
+    }
+
+    public void setFriends(Set<Long> friends) {
+        this.friends = friends == null ? new SortedIdSet() : new SortedIdSet(friends);
+    }
+
+    // The user's own fields with an empty friend set; the text bytes are never mutated, so they are shared
+    public User copyWithoutFriends() {
+        User copy = new User();
+        copy.id = id;
+        copy.name = name;
+        copy.email = email;
+        copy.login = login;
+        copy.birthday = birthday;
+        return copy;
+    }
 
 
 }
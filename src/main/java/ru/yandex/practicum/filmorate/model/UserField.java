@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.model;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+
+public enum UserField {
+    ID("id"),
+    NAME("name"),
+    EMAIL("email"),
+    LOGIN("login"),
+    BIRTHDAY("birthday"),
+    FRIEND_COUNT("friendCount");
+
+    private final String parameter;
+
+    UserField(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    // A blank selection means the whole summary
+    public static Set<UserField> fromParameter(String parameter) {
+        if (parameter == null || parameter.isBlank()) {
+            return EnumSet.allOf(UserField.class);
+        }
+        Set<UserField> fields = EnumSet.noneOf(UserField.class);
+        for (String name : parameter.split(",")) {
+            fields.add(fromName(name.trim()));
+        }
+        return fields;
+    }
+
+    private static UserField fromName(String name) {
+        for (UserField field : values()) {
+            if (field.parameter.equals(name)) {
+                return field;
+            }
+        }
+        throw new ValidationException("Unknown user field " + name);
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+
+// One page of users in ascending id order. nextCursor is passed back as cursor for the following page and
+// is left out on the last one.
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserPage {
+    private List<UserSummary> items;
+    private String nextCursor;
+
+
+}
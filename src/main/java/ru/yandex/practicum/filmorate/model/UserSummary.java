@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+
+// Read-only view of a user with the friend count in place of the friend set. Fields outside the
+// requested selection stay null and are left out of the response.
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSummary {
+    private Long id;
+    private String name;
+    private String email;
+    private String login;
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate birthday;
+    private Integer friendCount;
+
+    public static UserSummary of(User user, Set<UserField> fields) {
+        UserSummary summary = new UserSummary();
+        for (UserField field : fields) {
+            switch (field) {
+                case ID -> summary.id = user.getId();
+                case NAME -> summary.name = user.getName();
+                case EMAIL -> summary.email = user.getEmail();
+                case LOGIN -> summary.login = user.getLogin();
+                case BIRTHDAY -> summary.birthday = user.getBirthday();
+                case FRIEND_COUNT -> summary.friendCount = user.getFriends().size();
+            }
+        }
+        return summary;
+    }
+
+
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.PopularityEstimate;
+import ru.yandex.practicum.filmorate.sketch.SpaceSaving;
+
+import java.util.List;
+
+@Slf4j
+@Component
+public class ApproximatePopularity {
+
+    private final boolean enabled;
+    private final SpaceSaving heavyHitters;
+
+    public ApproximatePopularity(@Value("${filmorate.popularity.approximate.enabled:false}") boolean enabled,
+                                 @Value("${filmorate.popularity.approximate.capacity:1000}") int capacity,
+                                 @Value("${filmorate.popularity.approximate.precision:10}") int precision) {
+        this.enabled = enabled;
+        this.heavyHitters = new SpaceSaving(capacity, precision);
+        if (enabled) {
+            log.info("Approximate popularity enabled: {} counters, unique likers standard error {}",
+                    capacity, heavyHitters.getMembersStandardError());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordLike(long filmId, long userId) {
+        if (enabled) {
+            heavyHitters.add(filmId, userId);
+        }
+    }
+
+    public void recordUnlike(long filmId) {
+        if (enabled) {
+            heavyHitters.remove(filmId);
+        }
+    }
+
+    public void forget(long filmId) {
+        if (enabled) {
+            heavyHitters.forget(filmId);
+        }
+    }
+
+    public List<Long> getTopFilmIds(int size) {
+        return heavyHitters.top(size)
+                .stream()
+                .map(SpaceSaving.HeavyHitter::item)
+                .toList();
+    }
+
+    public List<PopularityEstimate> getEstimates(int size) {
+        double standardError = heavyHitters.getMembersStandardError();
+        return heavyHitters.top(size)
+                .stream()
+                .map(hitter -> new PopularityEstimate(hitter.item(), hitter.count(), hitter.error(),
+                        hitter.distinctMembers(), standardError))
+                .toList();
+    }
+
+
+}
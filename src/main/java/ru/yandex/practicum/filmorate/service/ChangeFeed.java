@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.ChangeFeedPage;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Ordered log of domain mutations kept in a fixed-size ring. Offsets grow monotonically from 0; once the ring
+// wraps, the oldest events are overwritten and a reader that fell behind gets a page flagged as truncated.
+// Writers publish from inside the critical section of the mutation they report, under the same entity lock
+// stripes, so the events of an entity and its edges appear in the order the writes were applied. Entity
+// events hold a detached copy without likes or friends: those travel as edge events, and the ring neither
+// sees later changes to the stored entity nor keeps it, or its sets, reachable.
+@Component
+public class ChangeFeed {
+
+    private final ChangeEvent[] ring;
+    private final Clock clock = Clock.systemUTC();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private long nextOffset;
+
+    public ChangeFeed(@Value("${filmorate.feed.capacity:65536}") int capacity) {
+        this.ring = new ChangeEvent[capacity];
+    }
+
+    public void publishFilm(ChangeType type, Film film) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setEntityId(film.getId());
+        event.setFilm(film.copyWithoutLikes());
+        publish(event);
+    }
+
+    public void publishUser(ChangeType type, User user) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setEntityId(user.getId());
+        event.setUser(user.copyWithoutFriends());
+        publish(event);
+    }
+
+    public void publishEdge(ChangeType type, long entityId, long relatedId) {
+        ChangeEvent event = new ChangeEvent();
+        event.setType(type);
+        event.setEntityId(entityId);
+        event.setRelatedId(relatedId);
+        publish(event);
+    }
+
+    // Listeners run synchronously on the mutating thread, after the event is appended and outside the feed lock
+    public void subscribe(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public ChangeFeedPage read(long offset, int limit, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (offset >= nextOffset && remaining > 0) {
+                remaining = appended.awaitNanos(remaining);
+            }
+            long oldest = Math.max(0, nextOffset - ring.length);
+            long from = Math.max(offset, oldest);
+            long to = Math.min(nextOffset, from + limit);
+            List<ChangeEvent> events = new ArrayList<>((int) Math.max(0, to - from));
+            for (long current = from; current < to; current++) {
+                events.add(ring[index(current)]);
+            }
+            return new ChangeFeedPage(events, Math.max(to, offset), oldest, offset < oldest);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getNextOffset() {
+        lock.lock();
+        try {
+            return nextOffset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(ChangeEvent event) {
+        event.setTimestamp(clock.instant());
+        lock.lock();
+        try {
+            event.setOffset(nextOffset);
+            ring[index(nextOffset)] = event;
+            nextOffset++;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Consumer<ChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    private int index(long offset) {
+        return (int) (offset % ring.length);
+    }
+}
@@ -0,0 +1,207 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Deletes films and users in two steps. The request removes the entity from storage and leaves a tombstone
+// for its id, so it is gone for every reader at once; a background worker then removes the edges pointing
+// at it, visiting only the deleted user's friends and the films it liked (see LikedFilmsIndex), never the
+// whole catalog. A tombstone lets a like that raced with the deletion and landed after the cleanup had
+// passed still be found and removed; such a like lands within moments of the deletion, so the tombstone
+// only outlives the cleanup by a grace window and is then swept, and the tombstones stay as few as the
+// deletions of the last window.
+@Slf4j
+@Service
+public class DeletionService {
+
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final LikedFilmsIndex likedFilmsIndex;
+    // Film and user ids share the stripes; a collision only serializes two unrelated deletions
+    private final StripedLocks locks = new StripedLocks();
+    // Tombstones by id, valued with the System.nanoTime() they expire at; NO_EXPIRY until the cleanup is done
+    private final Map<Long, Long> deletedFilms = new ConcurrentHashMap<>();
+    private final Map<Long, Long> deletedUsers = new ConcurrentHashMap<>();
+    private final long tombstoneGraceNanos;
+    // One worker keeps cleanups in deletion order and off the request threads
+    private final ExecutorService cleanup = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("deletion-cleanup").factory());
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer filmCleanupTimer;
+    private final Timer userCleanupTimer;
+
+    // LikedFilmsIndex is injected first, so it subscribes to the feed before the listener here does
+    public DeletionService(FilmStorage filmStorage,
+                           UserStorage userStorage,
+                           FilmService filmService,
+                           UserService userService,
+                           LikedFilmsIndex likedFilmsIndex,
+                           ChangeFeed changeFeed,
+                           FilmorateMetrics metrics,
+                           @Value("${filmorate.deletion.tombstone-grace:PT1M}") Duration tombstoneGrace) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.filmService = filmService;
+        this.userService = userService;
+        this.likedFilmsIndex = likedFilmsIndex;
+        this.tombstoneGraceNanos = tombstoneGrace.toNanos();
+        this.filmCleanupTimer = metrics.timer("filmorate.deletion", "cleanUpFilm");
+        this.userCleanupTimer = metrics.timer("filmorate.deletion", "cleanUpUser");
+        metrics.gauge("filmorate.deletion.pending", this, DeletionService::getPendingCleanups);
+        metrics.gauge("filmorate.deletion.tombstones", this, DeletionService::getTombstones);
+        changeFeed.subscribe(this::onLikeAdded);
+    }
+
+    public void deleteFilm(long filmId) {
+        // The tombstone goes in before the film leaves storage, and only for an id that was seen to exist
+        Film film = locks.withLocked(filmId, () -> {
+            filmStorage.getFilm(filmId);
+            return delete(deletedFilms, filmId, () -> filmService.deleteFilm(filmId));
+        });
+        schedule(filmCleanupTimer, () -> {
+            try {
+                cleanUpFilm(film);
+            } finally {
+                expire(deletedFilms, filmId);
+            }
+        });
+    }
+
+    public void deleteUser(long userId) {
+        User user = locks.withLocked(userId, () -> {
+            userStorage.getUser(userId);
+            return delete(deletedUsers, userId, () -> userService.deleteUser(userId));
+        });
+        schedule(userCleanupTimer, () -> {
+            try {
+                cleanUpUser(user);
+            } finally {
+                expire(deletedUsers, userId);
+            }
+        });
+    }
+
+    // Deletions whose edges are still being removed
+    public int getPendingCleanups() {
+        return pending.get();
+    }
+
+    // Deleted ids still guarded against racing likes
+    public int getTombstones() {
+        return deletedFilms.size() + deletedUsers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleanup.shutdown();
+    }
+
+    private void cleanUpFilm(Film film) {
+        for (Long userId : film.getLikes()) {
+            likedFilmsIndex.remove(userId, film.getId());
+        }
+        filmService.forgetFilm(film);
+        log.info("Cleanup of deleted film with id {} done, {} likes dropped", film.getId(), film.getLikes().size());
+    }
+
+    // The user left storage under the lock addFriend takes, so its friend set is final here. Its likes are
+    // looked up in the reverse index; a like that slips past this lookup is caught by onLikeAdded.
+    private void cleanUpUser(User user) {
+        long userId = user.getId();
+        int friends = 0;
+        for (Long friendId : user.getFriends()) {
+            if (userService.detachDeletedFriend(friendId, userId)) {
+                friends++;
+            }
+        }
+        int likes = 0;
+        for (Long filmId : likedFilmsIndex.forgetUser(userId)) {
+            if (filmService.detachDeletedLiker(filmId, userId)) {
+                likes++;
+            }
+        }
+        log.info("Cleanup of deleted user with id {} done, {} friendships and {} likes removed", userId, friends, likes);
+    }
+
+    // A like checked against a user or film that was deleted right after the check lands on the far side
+    // of the deletion; the tombstone catches it here
+    private void onLikeAdded(ChangeEvent event) {
+        if (event.getType() != ChangeType.LIKE_ADDED) {
+            return;
+        }
+        long filmId = event.getEntityId();
+        long userId = event.getRelatedId();
+        if (deletedUsers.containsKey(userId)) {
+            schedule(userCleanupTimer, () -> filmService.detachDeletedLiker(filmId, userId));
+        } else if (deletedFilms.containsKey(filmId)) {
+            schedule(filmCleanupTimer, () -> likedFilmsIndex.remove(userId, filmId));
+        }
+    }
+
+    // Runs under the id's stripe, so a concurrent deletion of the same id fails its existence check instead of
+    // racing this one; a tombstone this call wrote is taken back if the entity could not be removed after all
+    private static <T> T delete(Map<Long, Long> tombstones, long id, Supplier<T> removal) {
+        boolean placed = tombstones.putIfAbsent(id, NO_EXPIRY) == null;
+        try {
+            return removal.get();
+        } catch (RuntimeException e) {
+            if (placed) {
+                tombstones.remove(id, NO_EXPIRY);
+            }
+            throw e;
+        }
+    }
+
+    private void schedule(Timer timer, Runnable task) {
+        pending.incrementAndGet();
+        cleanup.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Deletion cleanup failed", e);
+            } finally {
+                sweepTombstones();
+                pending.decrementAndGet();
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        });
+    }
+
+    // Starts the grace window once the cleanup has passed; a later deletion of the id fails its existence
+    // check before it reaches the tombstone, so nothing else writes it meanwhile
+    private void expire(Map<Long, Long> tombstones, long id) {
+        tombstones.put(id, System.nanoTime() + tombstoneGraceNanos);
+    }
+
+    // Runs on the cleanup worker after every task, so tombstones are swept as deletions come in
+    private void sweepTombstones() {
+        long now = System.nanoTime();
+        deletedFilms.values().removeIf(expiresAt -> expiresAt != NO_EXPIRY && expiresAt - now <= 0);
+        deletedUsers.values().removeIf(expiresAt -> expiresAt != NO_EXPIRY && expiresAt - now <= 0);
+    }
+}
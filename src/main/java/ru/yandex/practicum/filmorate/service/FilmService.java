@@ -2,96 +2,264 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.BatchAction;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.BatchStatus;
+import ru.yandex.practicum.filmorate.model.ChangeType;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.LikeBatchItem;
+import ru.yandex.practicum.filmorate.model.PopularityEstimate;
+import ru.yandex.practicum.filmorate.model.PopularityWindow;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
 
 
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmService {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final LikeActivityTracker likeActivityTracker;
+    private final ApproximatePopularity approximatePopularity;
+    private final FilmValidator filmValidator;
+    private final FilmorateMetrics metrics;
+    private final ChangeFeed changeFeed;
+    // Held around each film mutation and the event it publishes, so feed order matches write order per film
+    private final StripedLocks locks = new StripedLocks();
+
+    // Upper bound on the size of ranked lists, each of which is built per request
+    @Value("${filmorate.admission.max-result-size:1000}")
+    private int maxResultSize;
+
+    public Film addFilm(Film film) {
+        validateFilm(film);
+        // Likes are only added through the like endpoints, which record and publish each of them
+        film.setLikes(null);
+        // Needs no lock: the id reaches clients only in the response, after FILM_ADDED is in the feed
+        Film added = filmStorage.addFilm(film);
+        changeFeed.publishFilm(ChangeType.FILM_ADDED, added);
+        return added;
+    }
 
-    public void addLike(long filmId, long userId) throws ValidationException {
-        Film film = filmStorage.getFilm(filmId);
-        User user = userStorage.getUser(userId);
-        if (user == null) {
-            log.error("User with id {} not found", userId);
+    public Film updateFilm(Film film) {
+        validateFilm(film);
+        return locks.withLocked(film.getId(), () -> {
+            Film updated = filmStorage.updateFilm(film);
+            changeFeed.publishFilm(ChangeType.FILM_UPDATED, updated);
+            return updated;
+        });
+    }
+
+    // Removes the film from storage and returns it, likes included, for DeletionService to clean up after
+    public Film deleteFilm(long filmId) {
+        return locks.withLocked(filmId, () -> {
+            Film deleted = filmStorage.deleteFilm(filmId);
+            changeFeed.publishFilm(ChangeType.FILM_DELETED, deleted);
+            return deleted;
+        });
+    }
+
+    // PUT semantics: liking twice leaves the film as it is, so retried requests succeed without an exception.
+    // Returns whether the like was new.
+    public boolean addLike(long filmId, long userId) {
+        filmStorage.getFilm(filmId);
+        if (userStorage.findUser(userId).isEmpty()) {
             throw new NotFoundException("User with id " + userId + " not found");
         }
-        if (film.getLikes().add(userId)) {
-            log.info("Film with id {} liked by user with id {}", filmId, userId);
-        } else {
-            log.info("Film with id {} already liked by user with id {}", filmId, userId);
-            throw new ValidationException("Film with id " + filmId + " already liked by user with id " + userId);
+        if (!locks.withLocked(filmId, () -> filmStorage.addLike(filmId, userId) && likeAdded(filmId, userId))) {
+            log.debug("Film with id {} already liked by user with id {}", filmId, userId);
+            return false;
         }
+        log.debug("Film with id {} liked by user with id {}", filmId, userId);
+        return true;
     }
 
     public void removeLike(long filmId, long userId) throws ValidationException {
-        Film film = filmStorage.getFilm(filmId);
+        filmStorage.getFilm(filmId);
         userStorage.getUser(userId);
-        if (film.getLikes().remove(userId)) {
-            log.info("Film with id {} unliked by user with id {}", filmId, userId);
+        if (locks.withLocked(filmId, () -> filmStorage.removeLike(filmId, userId) && likeRemoved(filmId, userId))) {
+            log.debug("Film with id {} unliked by user with id {}", filmId, userId);
         } else {
-            log.info("Cannot remove like from film with id {}. Film was not liked by user with id {}", filmId, userId);
+            log.debug("Cannot remove like from film with id {}. Film was not liked by user with id {}", filmId, userId);
             throw new NotFoundException("Film was not liked by user with id " + userId);
         }
     }
 
-    public List<Film> getPopularFilms(int size) {
+    // Cascade step of a user deletion: drops the deleted user's like without the existence checks
+    // removeLike makes. A film deleted in the meantime took the like with it.
+    public boolean detachDeletedLiker(long filmId, long deletedUserId) {
+        try {
+            if (!locks.withLocked(filmId,
+                    () -> filmStorage.removeLike(filmId, deletedUserId) && likeRemoved(filmId, deletedUserId))) {
+                return false;
+            }
+        } catch (NotFoundException e) {
+            return false;
+        }
+        log.debug("Like of deleted user with id {} removed from film with id {}", deletedUserId, filmId);
+        return true;
+    }
 
-        if (size <= 0) {
-            log.error("Size must be greater than 0");
-            throw new ValidationException("Size must be greater than 0");
+    // Cascade step of a film deletion: its likes left with it, so only the counters still refer to them
+    public void forgetFilm(Film film) {
+        likeActivityTracker.forget(film.getId());
+        approximatePopularity.forget(film.getId());
+        metrics.likesRemoved(film.getLikes().size());
+    }
+
+    public List<BatchResult> applyLikeBatch(List<LikeBatchItem> items) throws ValidationException {
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch must not contain more than " + MAX_BATCH_SIZE + " items");
         }
 
-        Set<Film> films = new TreeSet<>((o1, o2) -> o2.getLikes().size() - o1.getLikes().size());
-        List<Film> popularFilms;
-        films.addAll(filmStorage.getFilms());
-        if (films.size() > size) {
-            popularFilms = films.stream().limit(size).toList();
-        } else {
-            popularFilms = films.stream().toList();
+        // Films and users are resolved once per distinct id, and items are grouped by film so that
+        // each film's likes are applied together, keeping the batch order within a film
+        BatchResult[] results = new BatchResult[items.size()];
+        Map<Long, Optional<Film>> films = new HashMap<>();
+        Map<Long, Boolean> users = new HashMap<>();
+        Map<Long, List<Integer>> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            LikeBatchItem item = items.get(i);
+            if (item == null || item.getAction() == null) {
+                results[i] = new BatchResult(i, BatchStatus.INVALID, "Action must be ADD or REMOVE");
+                continue;
+            }
+            Optional<Film> film = films.computeIfAbsent(item.getFilmId(), filmStorage::findFilm);
+            if (film.isEmpty()) {
+                results[i] = new BatchResult(i, BatchStatus.NOT_FOUND, "Film with id " + item.getFilmId() + " not found");
+            } else if (!users.computeIfAbsent(item.getUserId(), id -> userStorage.findUser(id).isPresent())) {
+                results[i] = new BatchResult(i, BatchStatus.NOT_FOUND, "User with id " + item.getUserId() + " not found");
+            } else {
+                accepted.computeIfAbsent(item.getFilmId(), id -> new ArrayList<>()).add(i);
+            }
         }
 
-        return popularFilms;
+        accepted.forEach((filmId, indexes) -> locks.withLocked(filmId, () -> {
+            try {
+                for (int index : indexes) {
+                    LikeBatchItem item = items.get(index);
+                    boolean changed = item.getAction() == BatchAction.ADD
+                            ? filmStorage.addLike(filmId, item.getUserId()) && likeAdded(filmId, item.getUserId())
+                            : filmStorage.removeLike(filmId, item.getUserId()) && likeRemoved(filmId, item.getUserId());
+                    results[index] = new BatchResult(index,
+                            changed ? BatchStatus.APPLIED : BatchStatus.UNCHANGED, null);
+                }
+            } catch (NotFoundException e) {
+                // Deleted after it was resolved: its remaining items fail, the other films' likes stand
+                for (int index : indexes) {
+                    if (results[index] == null) {
+                        results[index] = new BatchResult(index, BatchStatus.NOT_FOUND,
+                                "Film with id " + filmId + " not found");
+                    }
+                }
+            }
+            return null;
+        }));
+        log.debug("Like batch of {} items applied to {} films", items.size(), accepted.size());
+        return Arrays.asList(results);
+    }
 
+    // Both run under the film's stripe, right after the storage change they record; they return true so
+    // they can be chained onto it
+    private boolean likeAdded(long filmId, long userId) {
+        likeActivityTracker.recordLike(filmId);
+        approximatePopularity.recordLike(filmId, userId);
+        metrics.likeAdded();
+        changeFeed.publishEdge(ChangeType.LIKE_ADDED, filmId, userId);
+        return true;
     }
 
-    public void validateFilm(Film film) {
-        log.debug("Starting validation for film: {}", film.getName());
+    private boolean likeRemoved(long filmId, long userId) {
+        likeActivityTracker.recordUnlike(filmId);
+        approximatePopularity.recordUnlike(filmId);
+        metrics.likeRemoved();
+        changeFeed.publishEdge(ChangeType.LIKE_REMOVED, filmId, userId);
+        return true;
+    }
 
-        if (film.getDescription().length() > 200) {
-            String errorMessage = "Film description must be less than 200 symbols";
-            log.error("Validation failed: {}", errorMessage);
-            throw new ValidationException(errorMessage);
+    public List<Film> getPopularFilms(int size) {
+        long start = System.nanoTime();
+        try {
+            return findPopularFilms(size);
+        } finally {
+            metrics.popularFilms().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+    }
 
-        if (film.getDuration().getSeconds() <= 0) {
-            String errorMessage = "Film duration must be positive";
-            log.error("Validation failed: {}", errorMessage);
-            throw new ValidationException(errorMessage);
+    private List<Film> findPopularFilms(int size) {
+
+        validateSize(size);
+
+        if (approximatePopularity.isEnabled()) {
+            return approximatePopularity.getTopFilmIds(size)
+                    .stream()
+                    .flatMap(filmId -> filmStorage.findFilm(filmId).stream())
+                    .toList();
         }
 
-        if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
-            String errorMessage = "Film release date must not be before 1895-12-28";
-            log.error("Validation failed: {}", errorMessage);
-            throw new ValidationException(errorMessage);
+        return filmStorage.getMostLikedFilms(size);
+
+    }
+
+    public List<Film> getPopularFilms(int size, PopularityWindow window) {
+
+        validateSize(size);
+
+        return likeActivityTracker.getTopFilmIds(window, size)
+                .stream()
+                .flatMap(filmId -> filmStorage.findFilm(filmId).stream())
+                .toList();
+    }
+
+    public List<PopularityEstimate> getPopularityEstimates(int size) {
+
+        validateSize(size);
+
+        if (!approximatePopularity.isEnabled()) {
+            throw new ValidationException("Approximate popularity mode is disabled");
         }
 
-        log.info("Film validation successful: {}", film.getName());
+        return approximatePopularity.getEstimates(size);
+    }
+
+    private void validateSize(int size) {
+        if (size <= 0) {
+            log.error("Size must be greater than 0");
+            throw new ValidationException("Size must be greater than 0");
+        }
+        if (size > maxResultSize) {
+            log.debug("Requested size {} exceeds the cap of {}", size, maxResultSize);
+            throw new ValidationException("Size must not be greater than " + maxResultSize);
+        }
+    }
+
+    public void validateFilm(Film film) {
+        List<String> violations = filmValidator.validate(film);
+        if (!violations.isEmpty()) {
+            String errorMessage = String.join("; ", violations);
+            log.debug("Film validation failed: {}", errorMessage);
+            throw new ValidationException(errorMessage);
+        }
     }
 
 
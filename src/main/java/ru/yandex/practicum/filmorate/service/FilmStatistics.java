@@ -0,0 +1,184 @@
+package ru.yandex.practicum.filmorate.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.model.LikeCountBucket;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Catalog-wide statistics, split over the film list with fork-join. Each leaf folds its slice into primitive
+// counters and the halves are merged on the way up, so nothing is boxed until the final result is built.
+// The result is cached until a film or like event arrives on the change feed; concurrent readers of a stale
+// result wait for a single recomputation instead of each scanning the catalog.
+@Component
+public class FilmStatistics {
+
+    private static final int LEAF_SIZE = 8192;
+    private static final int LIKE_BUCKETS = Integer.SIZE + 1;
+    private static final int FIRST_YEAR = FilmValidator.MIN_RELEASE_DATE.getYear();
+    private static final int INITIAL_YEARS = LocalDate.now().getYear() - FIRST_YEAR + 2;
+    private static final Set<ChangeType> FILM_EVENTS = EnumSet.of(
+            ChangeType.FILM_ADDED, ChangeType.FILM_UPDATED, ChangeType.FILM_DELETED,
+            ChangeType.LIKE_ADDED, ChangeType.LIKE_REMOVED);
+
+    private final FilmStorage filmStorage;
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock computing = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer computeTimer;
+    private volatile Cached cached;
+
+    public FilmStatistics(FilmStorage filmStorage, ChangeFeed changeFeed, FilmorateMetrics metrics) {
+        this.filmStorage = filmStorage;
+        this.hits = metrics.cacheCounter("film-stats", "hit");
+        this.misses = metrics.cacheCounter("film-stats", "miss");
+        this.computeTimer = metrics.timer("filmorate.service", "getFilmStats");
+        changeFeed.subscribe(event -> {
+            if (FILM_EVENTS.contains(event.getType())) {
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    public FilmStats getStats() {
+        Cached current = cached;
+        if (current != null && current.version() == version.get()) {
+            hits.increment();
+            return current.stats();
+        }
+        computing.lock();
+        try {
+            // The version is read before the scan: a mutation racing with it bumps the version again and the
+            // next call recomputes, so a result is never served for a newer version than it saw
+            long scanned = version.get();
+            current = cached;
+            if (current != null && current.version() == scanned) {
+                hits.increment();
+                return current.stats();
+            }
+            misses.increment();
+            long start = System.nanoTime();
+            FilmStats stats = compute(filmStorage.getFilms(), ForkJoinPool.commonPool());
+            computeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            cached = new Cached(scanned, stats);
+            return stats;
+        } finally {
+            computing.unlock();
+        }
+    }
+
+    public static FilmStats compute(List<Film> films, ForkJoinPool pool) {
+        Film[] snapshot = films.toArray(new Film[0]);
+        Accumulator total = pool.invoke(new Slice(snapshot, 0, snapshot.length));
+
+        List<LikeCountBucket> distribution = new ArrayList<>();
+        for (int bucket = 0; bucket < LIKE_BUCKETS; bucket++) {
+            if (total.likeBuckets[bucket] > 0) {
+                long min = bucket == 0 ? 0 : 1L << (bucket - 1);
+                long max = bucket == 0 ? 0 : (1L << bucket) - 1;
+                distribution.add(new LikeCountBucket(min, max, total.likeBuckets[bucket]));
+            }
+        }
+        Map<Integer, Long> perYear = new TreeMap<>();
+        for (int i = 0; i < total.years.length; i++) {
+            if (total.years[i] > 0) {
+                perYear.put(FIRST_YEAR + i, total.years[i]);
+            }
+        }
+        double average = total.films == 0 ? 0 : (double) total.likes / total.films;
+        return new FilmStats(total.films, total.likes, average, total.maxLikes, distribution, perYear);
+    }
+
+    private record Cached(long version, FilmStats stats) {
+    }
+
+    private static final class Slice extends RecursiveTask<Accumulator> {
+
+        private final Film[] films;
+        private final int from;
+        private final int to;
+
+        private Slice(Film[] films, int from, int to) {
+            this.films = films;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= LEAF_SIZE) {
+                Accumulator accumulator = new Accumulator();
+                for (int i = from; i < to; i++) {
+                    accumulator.add(films[i]);
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            Slice left = new Slice(films, from, middle);
+            left.fork();
+            Accumulator right = new Slice(films, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static final class Accumulator {
+
+        private long films;
+        private long likes;
+        private int maxLikes;
+        private final long[] likeBuckets = new long[LIKE_BUCKETS];
+        private long[] years = new long[INITIAL_YEARS];
+
+        private void add(Film film) {
+            int count = film.getLikes().size();
+            films++;
+            likes += count;
+            maxLikes = Math.max(maxLikes, count);
+            likeBuckets[Integer.SIZE - Integer.numberOfLeadingZeros(count)]++;
+            LocalDate releaseDate = film.getReleaseDate();
+            if (releaseDate != null && releaseDate.getYear() >= FIRST_YEAR) {
+                int year = releaseDate.getYear() - FIRST_YEAR;
+                if (year >= years.length) {
+                    years = Arrays.copyOf(years, year + 1);
+                }
+                years[year]++;
+            }
+        }
+
+        private Accumulator merge(Accumulator other) {
+            films += other.films;
+            likes += other.likes;
+            maxLikes = Math.max(maxLikes, other.maxLikes);
+            for (int i = 0; i < LIKE_BUCKETS; i++) {
+                likeBuckets[i] += other.likeBuckets[i];
+            }
+            if (other.years.length > years.length) {
+                years = Arrays.copyOf(years, other.years.length);
+            }
+            for (int i = 0; i < other.years.length; i++) {
+                years[i] += other.years[i];
+            }
+            return this;
+        }
+    }
+}
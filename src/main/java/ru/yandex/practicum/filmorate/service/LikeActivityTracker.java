@@ -0,0 +1,187 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.PopularityWindow;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counts like events per film in hourly buckets kept in a fixed ring that covers the widest window.
+// Each film keeps a running total per window; totals are advanced lazily, so an event costs
+// O(hours elapsed since the film's last event), capped by the ring size. Per-film state is a fixed set of
+// counters: nothing is kept per user, so an unlike takes back the oldest like each window still counts,
+// and a window that counts none is left at zero.
+@Component
+public class LikeActivityTracker {
+
+    private static final long BUCKET_MILLIS = Duration.ofHours(1).toMillis();
+    private static final PopularityWindow[] WINDOWS = PopularityWindow.values();
+    private static final int RING_SIZE = (int) (Arrays.stream(WINDOWS)
+            .mapToLong(window -> window.getDuration().toMillis())
+            .max()
+            .orElseThrow() / BUCKET_MILLIS);
+
+    private final Map<Long, FilmActivity> activities = new ConcurrentHashMap<>();
+    private final Clock clock;
+
+    public LikeActivityTracker() {
+        this(Clock.systemUTC());
+    }
+
+    public LikeActivityTracker(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void recordLike(long filmId) {
+        long bucket = currentBucket();
+        activities.compute(filmId, (id, activity) -> {
+            FilmActivity current = activity == null ? new FilmActivity(bucket) : activity;
+            current.like(bucket);
+            return current;
+        });
+    }
+
+    public void recordUnlike(long filmId) {
+        long bucket = currentBucket();
+        activities.computeIfPresent(filmId, (id, activity) -> {
+            activity.unlike(bucket);
+            return activity;
+        });
+    }
+
+    public void forget(long filmId) {
+        activities.remove(filmId);
+    }
+
+    public long getLikeCount(long filmId, PopularityWindow window) {
+        FilmActivity activity = activities.get(filmId);
+        return activity == null ? 0 : activity.count(currentBucket(), window);
+    }
+
+    public List<Long> getTopFilmIds(PopularityWindow window, int size) {
+        long bucket = currentBucket();
+        PriorityQueue<FilmScore> top = new PriorityQueue<>(size + 1, Comparator.comparingLong(FilmScore::score));
+
+        for (Long filmId : activities.keySet()) {
+            FilmActivity activity = activities.computeIfPresent(filmId,
+                    (id, current) -> current.isIdle(bucket) ? null : current);
+            if (activity == null) {
+                continue;
+            }
+            long score = activity.count(bucket, window);
+            if (score <= 0) {
+                continue;
+            }
+            if (top.size() < size) {
+                top.add(new FilmScore(filmId, score));
+            } else if (top.peek().score() < score) {
+                top.poll();
+                top.add(new FilmScore(filmId, score));
+            }
+        }
+
+        List<Long> filmIds = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            filmIds.add(top.poll().filmId());
+        }
+        return filmIds.reversed();
+    }
+
+    private long currentBucket() {
+        return clock.millis() / BUCKET_MILLIS;
+    }
+
+    private record FilmScore(long filmId, long score) {
+    }
+
+    private static final class FilmActivity {
+        // Likes per window and ring slot that no unlike has taken back yet; each window's row only ever
+        // holds the buckets the window covers, so its total is the sum of the row
+        private final int[][] buckets = new int[WINDOWS.length][RING_SIZE];
+        private final long[] windowTotals = new long[WINDOWS.length];
+        private long headBucket;
+        private long lastEventBucket;
+
+        FilmActivity(long headBucket) {
+            this.headBucket = headBucket;
+            this.lastEventBucket = headBucket;
+        }
+
+        synchronized void like(long bucket) {
+            advance(bucket);
+            // A clock that stepped back is counted at the head, which keeps the bucket inside every window
+            long at = Math.max(bucket, headBucket);
+            lastEventBucket = Math.max(lastEventBucket, at);
+            for (PopularityWindow window : WINDOWS) {
+                buckets[window.ordinal()][index(at)]++;
+                windowTotals[window.ordinal()]++;
+            }
+        }
+
+        synchronized void unlike(long bucket) {
+            advance(bucket);
+            lastEventBucket = Math.max(lastEventBucket, headBucket);
+            for (PopularityWindow window : WINDOWS) {
+                int[] row = buckets[window.ordinal()];
+                if (windowTotals[window.ordinal()] == 0) {
+                    continue;
+                }
+                // Takes back the window's oldest like that is still counted; the total is positive, so one exists
+                for (long at = headBucket - windowBuckets(window) + 1; at <= headBucket; at++) {
+                    if (row[index(at)] > 0) {
+                        row[index(at)]--;
+                        windowTotals[window.ordinal()]--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        synchronized long count(long bucket, PopularityWindow window) {
+            advance(bucket);
+            return windowTotals[window.ordinal()];
+        }
+
+        synchronized boolean isIdle(long bucket) {
+            return bucket - lastEventBucket >= RING_SIZE;
+        }
+
+        private void advance(long bucket) {
+            if (bucket <= headBucket) {
+                return;
+            }
+            if (bucket - headBucket >= RING_SIZE) {
+                for (int[] row : buckets) {
+                    Arrays.fill(row, 0);
+                }
+                Arrays.fill(windowTotals, 0);
+                headBucket = bucket;
+                return;
+            }
+            for (long entering = headBucket + 1; entering <= bucket; entering++) {
+                for (PopularityWindow window : WINDOWS) {
+                    int[] row = buckets[window.ordinal()];
+                    int leaving = index(entering - windowBuckets(window));
+                    windowTotals[window.ordinal()] -= row[leaving];
+                    row[leaving] = 0;
+                }
+            }
+            headBucket = bucket;
+        }
+
+        private static long windowBuckets(PopularityWindow window) {
+            return window.getDuration().toMillis() / BUCKET_MILLIS;
+        }
+
+        private static int index(long bucket) {
+            return (int) Math.floorMod(bucket, (long) RING_SIZE);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Reverse of Film.likes: the films each user liked, so deleting a user visits only those films instead of
+// the whole catalog. It is fed from the like events of the change feed and may hold more than the truth: a
+// deleted film is only cleared from its likers in the background. A stale entry just costs the deletion
+// cleanup one removeLike that finds nothing.
+@Component
+public class LikedFilmsIndex {
+
+    private final Map<Long, Set<Long>> likedFilms = new ConcurrentHashMap<>();
+
+    public LikedFilmsIndex(ChangeFeed changeFeed) {
+        changeFeed.subscribe(this::apply);
+    }
+
+    public Set<Long> getLikedFilms(long userId) {
+        Set<Long> films = likedFilms.get(userId);
+        return films == null ? Set.of() : Set.copyOf(films);
+    }
+
+    // Removes and returns the user's entry, for the cleanup after the user was deleted
+    public Set<Long> forgetUser(long userId) {
+        Set<Long> films = likedFilms.remove(userId);
+        return films == null ? Set.of() : films;
+    }
+
+    public void remove(long userId, long filmId) {
+        likedFilms.computeIfPresent(userId, (id, films) -> {
+            films.remove(filmId);
+            return films.isEmpty() ? null : films;
+        });
+    }
+
+    private void add(long userId, long filmId) {
+        // Under the map's bin lock, like remove, so a set is never filled after remove dropped it as empty
+        likedFilms.compute(userId, (id, films) -> {
+            Set<Long> updated = films == null ? ConcurrentHashMap.newKeySet() : films;
+            updated.add(filmId);
+            return updated;
+        });
+    }
+
+    private void apply(ChangeEvent event) {
+        switch (event.getType()) {
+            case LIKE_ADDED -> add(event.getRelatedId(), event.getEntityId());
+            case LIKE_REMOVED -> remove(event.getRelatedId(), event.getEntityId());
+            default -> {
+            }
+        }
+    }
+}
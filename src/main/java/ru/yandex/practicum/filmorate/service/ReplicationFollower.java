@@ -0,0 +1,312 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.ChangeFeedPage;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Tails the leader's change feed over HTTP and applies every event to local storage in offset order.
+// Entity events carry the entity's own fields and replace them here, keeping its local likes and friends;
+// edge events are replayed through the services. Both are idempotent, so re-reading a range after a restart
+// or a resync converges on the leader's state. Applied events are republished to the local feed, which
+// keeps caches invalidated and lets followers chain.
+@Slf4j
+@Component
+@Profile("follower")
+public class ReplicationFollower implements SmartLifecycle {
+
+    private static final int PAGE_SIZE = 1000;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+    private static final TypeReference<List<Film>> FILM_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {
+    };
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final DeletionService deletionService;
+    private final ChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+    private final String leaderUrl;
+    private final Duration pollWait;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final Clock clock = Clock.systemUTC();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final Timer lag;
+    private volatile long appliedOffset;
+    private volatile Instant caughtUpAt = Instant.EPOCH;
+    private volatile Thread worker;
+
+    public ReplicationFollower(FilmStorage filmStorage,
+                               UserStorage userStorage,
+                               FilmService filmService,
+                               UserService userService,
+                               DeletionService deletionService,
+                               ChangeFeed changeFeed,
+                               ObjectMapper objectMapper,
+                               FilmorateMetrics metrics,
+                               @Value("${filmorate.replication.leader-url}") String leaderUrl,
+                               @Value("${filmorate.replication.poll-wait:PT1S}") Duration pollWait) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.filmService = filmService;
+        this.userService = userService;
+        this.deletionService = deletionService;
+        this.changeFeed = changeFeed;
+        this.objectMapper = objectMapper;
+        this.leaderUrl = leaderUrl;
+        this.pollWait = pollWait;
+        this.lag = metrics.timer("filmorate.replication", "lag");
+        metrics.gauge("filmorate.replication.offset", this, ReplicationFollower::getAppliedOffset);
+        metrics.gauge("filmorate.replication.staleness", this, follower -> follower.getStaleness().toMillis());
+    }
+
+    public String getLeaderUrl() {
+        return leaderUrl;
+    }
+
+    // Leader offset up to which every event has been applied here
+    public long getAppliedOffset() {
+        return appliedOffset;
+    }
+
+    // How long ago this follower was last known to have seen everything the leader had
+    public Duration getStaleness() {
+        return Duration.between(caughtUpAt, clock.instant());
+    }
+
+    public boolean awaitOffset(long offset, Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = timeout.toNanos();
+            while (appliedOffset < offset && remaining > 0) {
+                remaining = advanced.awaitNanos(remaining);
+            }
+            return appliedOffset >= offset;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        log.info("Replicating from leader {}", leaderUrl);
+        worker = Thread.ofVirtual().name("replication-follower").start(this::replicate);
+    }
+
+    @Override
+    public void stop() {
+        Thread current = worker;
+        worker = null;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    private void replicate() {
+        while (worker == Thread.currentThread()) {
+            try {
+                Instant requested = clock.instant();
+                ChangeFeedPage page = fetch("/events?offset=" + appliedOffset + "&limit=" + PAGE_SIZE
+                        + "&waitSeconds=" + pollWait.toSeconds(), ChangeFeedPage.class);
+                if (page.isTruncated()) {
+                    log.warn("Leader feed no longer holds offset {}, resyncing from a snapshot", appliedOffset);
+                    resync(page.getOldestOffset());
+                    continue;
+                }
+                for (ChangeEvent event : page.getEvents()) {
+                    apply(event);
+                    lag.record(Duration.between(event.getTimestamp(), clock.instant()).toNanos(), TimeUnit.NANOSECONDS);
+                }
+                // A short page means the leader had nothing more when the request was sent
+                advance(page.getNextOffset(), page.getEvents().size() < PAGE_SIZE ? requested : null);
+            } catch (IOException e) {
+                log.warn("Cannot read change feed of leader {}: {}", leaderUrl, e.getMessage());
+                if (!pause()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Cannot apply change feed of leader {}", leaderUrl, e);
+                if (!pause()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Snapshots are taken after the resume offset was read, so replaying the feed from there only
+    // repeats changes the snapshot may already contain. Ids are never reused, so a local entity missing
+    // from the snapshot was deleted on the leader. Entities are replaced first and their edges reconciled
+    // afterwards, when every user a friendship or like refers to is present.
+    private void resync(long resumeOffset) throws IOException, InterruptedException {
+        List<User> users = fetch("/users", USER_LIST);
+        List<Film> films = fetch("/films", FILM_LIST);
+        Set<Long> leaderFilms = films.stream().map(Film::getId).collect(Collectors.toSet());
+        for (Film film : filmStorage.getFilms()) {
+            if (!leaderFilms.contains(film.getId())) {
+                deletionService.deleteFilm(film.getId());
+            }
+        }
+        Set<Long> leaderUsers = users.stream().map(User::getId).collect(Collectors.toSet());
+        for (User user : userStorage.getUsers()) {
+            if (!leaderUsers.contains(user.getId())) {
+                deletionService.deleteUser(user.getId());
+            }
+        }
+
+        Map<Long, Set<Long>> friends = new HashMap<>();
+        for (User user : users) {
+            friends.put(user.getId(), Set.copyOf(user.getFriends()));
+            userStorage.replicateUser(user);
+            changeFeed.publishUser(ChangeType.USER_UPDATED, user);
+        }
+        Map<Long, Set<Long>> likes = new HashMap<>();
+        for (Film film : films) {
+            likes.put(film.getId(), Set.copyOf(film.getLikes()));
+            filmStorage.replicateFilm(film);
+            changeFeed.publishFilm(ChangeType.FILM_UPDATED, film);
+        }
+        friends.forEach((userId, leaderFriends) -> reconcile(userId, leaderFriends,
+                userStorage.getUser(userId).getFriends(), ChangeType.FRIEND_ADDED, ChangeType.FRIEND_REMOVED));
+        likes.forEach((filmId, leaderLikes) -> reconcile(filmId, leaderLikes,
+                filmStorage.getFilm(filmId).getLikes(), ChangeType.LIKE_ADDED, ChangeType.LIKE_REMOVED));
+        advance(resumeOffset, null);
+    }
+
+    // Replays the edges that differ between the leader's snapshot and this follower as edge events
+    private void reconcile(long entityId, Set<Long> leader, Set<Long> local, ChangeType added, ChangeType removed) {
+        for (Long relatedId : List.copyOf(local)) {
+            if (!leader.contains(relatedId)) {
+                applyEdge(removed, entityId, relatedId);
+            }
+        }
+        for (Long relatedId : leader) {
+            if (!local.contains(relatedId)) {
+                applyEdge(added, entityId, relatedId);
+            }
+        }
+    }
+
+    private void apply(ChangeEvent event) {
+        try {
+            switch (event.getType()) {
+                case FILM_ADDED, FILM_UPDATED -> {
+                    filmStorage.replicateFilm(event.getFilm());
+                    changeFeed.publishFilm(event.getType(), event.getFilm());
+                }
+                case USER_ADDED, USER_UPDATED -> {
+                    userStorage.replicateUser(event.getUser());
+                    changeFeed.publishUser(event.getType(), event.getUser());
+                }
+                // Deleting here runs the same local cleanup as on the leader, so the leader's cleanup events
+                // that follow find nothing left to remove
+                case FILM_DELETED -> deletionService.deleteFilm(event.getEntityId());
+                case USER_DELETED -> deletionService.deleteUser(event.getEntityId());
+                case LIKE_ADDED, LIKE_REMOVED, FRIEND_ADDED, FRIEND_REMOVED ->
+                        applyEdge(event.getType(), event.getEntityId(), event.getRelatedId());
+            }
+        } catch (NotFoundException e) {
+            // The snapshot applied earlier already reflected this deletion
+            log.debug("Event {} already applied: {}", event.getOffset(), e.getMessage());
+        }
+    }
+
+    private void applyEdge(ChangeType type, long entityId, long relatedId) {
+        try {
+            switch (type) {
+                case LIKE_ADDED -> filmService.addLike(entityId, relatedId);
+                case LIKE_REMOVED -> filmService.removeLike(entityId, relatedId);
+                case FRIEND_ADDED -> userService.addFriend(entityId, relatedId);
+                case FRIEND_REMOVED -> userService.removeFriend(entityId, relatedId);
+                default -> throw new IllegalArgumentException("Not an edge event: " + type);
+            }
+        } catch (ValidationException | NotFoundException e) {
+            // The snapshot applied earlier already reflected this edge, or one of its ends was deleted since
+            log.debug("{} {} -> {} already applied: {}", type, entityId, relatedId, e.getMessage());
+        }
+    }
+
+    private void advance(long offset, Instant caughtUp) {
+        lock.lock();
+        try {
+            appliedOffset = offset;
+            if (caughtUp != null) {
+                caughtUpAt = caughtUp;
+            }
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T fetch(String path, Class<T> type) throws IOException, InterruptedException {
+        return objectMapper.readValue(get(path), type);
+    }
+
+    private <T> T fetch(String path, TypeReference<T> type) throws IOException, InterruptedException {
+        return objectMapper.readValue(get(path), type);
+    }
+
+    private byte[] get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(leaderUrl + path))
+                .header("Accept", "application/json")
+                .timeout(pollWait.plusSeconds(10))
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(RETRY_DELAY);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+}
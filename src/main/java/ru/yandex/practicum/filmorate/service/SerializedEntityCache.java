@@ -0,0 +1,211 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.ChangeEvent;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+// Keeps the JSON bytes of recently read films and users, plus a lazily built gzip variant, so hot GET
+// endpoints can write them without another Jackson pass. Each section is an LRU of at most max-entries,
+// split into segments with their own lock. Entries are dropped on every change feed event touching the
+// entity, and an entry is only served for the exact object instance it was built from, which also covers
+// entities replaced directly in storage. That instance is only weakly referenced, so an entry never keeps
+// an evicted or deleted entity alive.
+@Component
+public class SerializedEntityCache {
+
+    private static final int GZIP_MIN_SIZE = 1024;
+    private static final int SEGMENTS = 64;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Section films;
+    private final Section users;
+
+    public SerializedEntityCache(ObjectMapper objectMapper,
+                                 ChangeFeed changeFeed,
+                                 FilmorateMetrics metrics,
+                                 @Value("${filmorate.serialization-cache.enabled:true}") boolean enabled,
+                                 @Value("${filmorate.serialization-cache.max-entries:10000}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.films = new Section(metrics, "film", maxEntries);
+        this.users = new Section(metrics, "user", maxEntries);
+        changeFeed.subscribe(this::invalidate);
+    }
+
+    public Entry getFilm(Film film) {
+        return films.get(film.getId(), film);
+    }
+
+    public Entry getUser(User user) {
+        return users.get(user.getId(), user);
+    }
+
+    private void invalidate(ChangeEvent event) {
+        switch (event.getType()) {
+            case FILM_ADDED, FILM_UPDATED, FILM_DELETED, LIKE_ADDED, LIKE_REMOVED ->
+                    films.invalidate(event.getEntityId());
+            case USER_ADDED, USER_UPDATED, USER_DELETED -> users.invalidate(event.getEntityId());
+            case FRIEND_ADDED, FRIEND_REMOVED -> {
+                users.invalidate(event.getEntityId());
+                users.invalidate(event.getRelatedId());
+            }
+        }
+    }
+
+    private byte[] serialize(Object entity) {
+        try {
+            return objectMapper.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + entity.getClass().getSimpleName(), e);
+        }
+    }
+
+    private final class Section {
+
+        private final Segment[] segments = new Segment[SEGMENTS];
+        private final Counter hits;
+        private final Counter misses;
+
+        private Section(FilmorateMetrics metrics, String name, int maxEntries) {
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment(Math.max(1, maxEntries / SEGMENTS));
+            }
+            this.hits = metrics.cacheCounter(name, "hit");
+            this.misses = metrics.cacheCounter(name, "miss");
+        }
+
+        private Entry get(long id, Object entity) {
+            if (!enabled) {
+                return new Entry(entity, serialize(entity));
+            }
+            Segment segment = segments[Long.hashCode(id) & (SEGMENTS - 1)];
+            Entry entry = segment.get(id);
+            if (entry != null && entry.entity.get() == entity) {
+                hits.increment();
+                return entry;
+            }
+            misses.increment();
+            long stamp = segment.stamp();
+            Entry fresh = new Entry(entity, serialize(entity));
+            segment.put(id, fresh, stamp);
+            return fresh;
+        }
+
+        private void invalidate(long id) {
+            segments[Long.hashCode(id) & (SEGMENTS - 1)].invalidate(id);
+        }
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Entry> entries;
+        // Counts invalidations of ids in this segment only, so a write elsewhere does not void a fresh entry
+        private long invalidations;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        private Entry get(long id) {
+            lock.lock();
+            try {
+                return entries.get(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long stamp() {
+            lock.lock();
+            try {
+                return invalidations;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // A mutation racing with serialization may already have invalidated before the put, so the fresh
+        // entry is only stored when no invalidation reached this segment since the stamp was taken
+        private void put(long id, Entry entry, long stamp) {
+            lock.lock();
+            try {
+                if (invalidations == stamp) {
+                    entries.put(id, entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void invalidate(long id) {
+            lock.lock();
+            try {
+                invalidations++;
+                entries.remove(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    public static final class Entry {
+
+        private final WeakReference<Object> entity;
+        private final byte[] json;
+        private volatile byte[] gzip;
+
+        private Entry(Object entity, byte[] json) {
+            this.entity = new WeakReference<>(entity);
+            this.json = json;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public boolean isCompressible() {
+            return json.length >= GZIP_MIN_SIZE;
+        }
+
+        public byte[] getGzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                compressed = compress(json);
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        private static byte[] compress(byte[] bytes) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4 + 32);
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        }
+    }
+}
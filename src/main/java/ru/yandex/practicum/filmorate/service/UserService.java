@@ -2,68 +2,219 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.BatchAction;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.BatchStatus;
+import ru.yandex.practicum.filmorate.model.ChangeType;
+import ru.yandex.practicum.filmorate.model.CountResult;
+import ru.yandex.practicum.filmorate.model.FriendBatchItem;
+import ru.yandex.practicum.filmorate.model.SortedIdSet;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserPage;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+import ru.yandex.practicum.filmorate.storage.FriendChange;
+import ru.yandex.practicum.filmorate.storage.StripedLocks;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final UserStorage userStorage;
+    private final UserValidator userValidator;
+    private final FilmorateMetrics metrics;
+    private final ChangeFeed changeFeed;
+    // Held around each user or friendship mutation and the event it publishes, so feed order matches write
+    // order for every user involved
+    private final StripedLocks locks = new StripedLocks();
 
+    // Upper bound on the size of friend pages, shared with the other ranked and listed results
+    @Value("${filmorate.admission.max-result-size:1000}")
+    private int maxResultSize;
 
-    public void addFriend(long userId, long friendId) throws ValidationException {
-        User user = userStorage.getUser(userId);
-        User friend = userStorage.getUser(friendId);
+    public User addUser(User user) {
+        validateUser(user);
+        // Friendships are only added through the friend endpoints, which keep both halves of an edge
+        user.setFriends(null);
+        // Needs no lock: the id reaches clients only in the response, after USER_ADDED is in the feed
+        User added = userStorage.addUser(user);
+        changeFeed.publishUser(ChangeType.USER_ADDED, added);
+        return added;
+    }
 
+    public User updateUser(User user) {
         validateUser(user);
-        validateUser(friend);
+        return locks.withLocked(user.getId(), () -> {
+            User updated = userStorage.updateUser(user);
+            changeFeed.publishUser(ChangeType.USER_UPDATED, updated);
+            return updated;
+        });
+    }
+
+    // Removes the user from storage and returns it, friends included, for DeletionService to clean up after
+    public User deleteUser(long userId) {
+        return locks.withLocked(userId, () -> {
+            User deleted = userStorage.deleteUser(userId);
+            changeFeed.publishUser(ChangeType.USER_DELETED, deleted);
+            return deleted;
+        });
+    }
+
+    public void addFriend(long userId, long friendId) throws ValidationException {
+        validateUser(userStorage.getUser(userId));
+        validateUser(userStorage.getUser(friendId));
 
-        if (user.getFriends().add(friendId)) {
-            friend.getFriends().add(userId);
-            log.info("Friend with id {} added to user with id {}", friendId, userId);
+        if (locks.withPairLocked(userId, friendId,
+                () -> userStorage.addFriend(userId, friendId) && friendshipAdded(userId, friendId))) {
+            log.debug("Friend with id {} added to user with id {}", friendId, userId);
         } else {
-            log.info("Friend with id {} already exists in user with id {}", friendId, userId);
+            log.debug("Friend with id {} already exists in user with id {}", friendId, userId);
         }
 
 
     }
 
     public void removeFriend(long userId, long friendId) throws ValidationException {
-        User user = userStorage.getUser(userId);
-        User friend = userStorage.getUser(friendId);
+        validateUser(userStorage.getUser(userId));
+        validateUser(userStorage.getUser(friendId));
 
-        validateUser(user);
-        validateUser(friend);
-
-        if (user.getFriends().remove(friendId)) {
-            log.info("Friend with id {} removed from user with id {}", friendId, userId);
-            friend.getFriends().remove(userId);
+        if (locks.withPairLocked(userId, friendId,
+                () -> userStorage.removeFriend(userId, friendId) && friendshipRemoved(userId, friendId))) {
+            log.debug("Friend with id {} removed from user with id {}", friendId, userId);
         } else {
-            log.info("Friend with id {} not found in user with id {}", friendId, userId);
+            log.debug("Friend with id {} not found in user with id {}", friendId, userId);
+        }
+    }
+
+    // Cascade step of a user deletion: removes the edge to the deleted friend from the side that is left,
+    // without the existence checks removeFriend makes of both ends
+    public boolean detachDeletedFriend(long userId, long deletedFriendId) {
+        if (!locks.withPairLocked(userId, deletedFriendId,
+                () -> userStorage.detachFriend(userId, deletedFriendId) && friendshipRemoved(userId, deletedFriendId))) {
+            return false;
+        }
+        log.debug("Deleted user with id {} removed from friends of user with id {}", deletedFriendId, userId);
+        return true;
+    }
+
+    public List<BatchResult> applyFriendBatch(long userId, List<FriendBatchItem> items) throws ValidationException {
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("Batch must not contain more than " + MAX_BATCH_SIZE + " items");
+        }
+        validateUser(userStorage.getUser(userId));
+
+        // Each distinct friend is looked up once, then all accepted changes go to storage together
+        BatchResult[] results = new BatchResult[items.size()];
+        Map<Long, Boolean> existing = new HashMap<>();
+        List<FriendChange> accepted = new ArrayList<>(items.size());
+        int[] acceptedIndexes = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            FriendBatchItem item = items.get(i);
+            if (item == null || item.getAction() == null) {
+                results[i] = new BatchResult(i, BatchStatus.INVALID, "Action must be ADD or REMOVE");
+            } else if (item.getFriendId() == userId) {
+                results[i] = new BatchResult(i, BatchStatus.INVALID, "User cannot be their own friend");
+            } else if (!existing.computeIfAbsent(item.getFriendId(), id -> userStorage.findUser(id).isPresent())) {
+                results[i] = new BatchResult(i, BatchStatus.NOT_FOUND,
+                        "User with id " + item.getFriendId() + " not found");
+            } else {
+                acceptedIndexes[accepted.size()] = i;
+                accepted.add(new FriendChange(item.getFriendId(), item.getAction() == BatchAction.ADD));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            long[] ids = new long[accepted.size() + 1];
+            ids[0] = userId;
+            for (int i = 0; i < accepted.size(); i++) {
+                ids[i + 1] = accepted.get(i).friendId();
+            }
+            locks.withAllLocked(ids, () -> {
+                boolean[] changed;
+                try {
+                    changed = userStorage.updateFriends(userId, accepted);
+                } catch (NotFoundException e) {
+                    // The user was deleted after it was resolved; storage checks it before changing anything
+                    for (int i = 0; i < accepted.size(); i++) {
+                        results[acceptedIndexes[i]] = new BatchResult(acceptedIndexes[i], BatchStatus.NOT_FOUND,
+                                "User with id " + userId + " not found");
+                    }
+                    return null;
+                }
+                for (int i = 0; i < accepted.size(); i++) {
+                    int index = acceptedIndexes[i];
+                    FriendChange change = accepted.get(i);
+                    if (!changed[i] && userStorage.findUser(change.friendId()).isEmpty()) {
+                        // Storage skips a friend deleted after it was resolved
+                        results[index] = new BatchResult(index, BatchStatus.NOT_FOUND,
+                                "User with id " + change.friendId() + " not found");
+                    } else if (!changed[i]) {
+                        results[index] = new BatchResult(index, BatchStatus.UNCHANGED, null);
+                    } else {
+                        if (change.add()) {
+                            friendshipAdded(userId, change.friendId());
+                        } else {
+                            friendshipRemoved(userId, change.friendId());
+                        }
+                        results[index] = new BatchResult(index, BatchStatus.APPLIED, null);
+                    }
+                }
+                return null;
+            });
         }
+        log.debug("Friend batch of {} items applied to user with id {}", items.size(), userId);
+        return Arrays.asList(results);
     }
 
     public List<User> getFriends(long userId) throws ValidationException {
         User user = userStorage.getUser(userId);
         validateUser(user);
 
+        // A friend deleted a moment ago stays in the set until the cleanup after its deletion reaches it
         List<User> friends = new ArrayList<>(user.getFriends().size());
         for (Long friendId : user.getFriends()) {
-            friends.add(userStorage.getUser(friendId));
+            userStorage.findUser(friendId).ifPresent(friends::add);
         }
         return friends;
     }
 
+    // Ascending friend ids for callers that look the friends up lazily, such as the streaming reactive
+    // endpoint; ids of friends deleted a moment ago are still there, as in getFriends
+    public Iterable<Long> getFriendIds(long userId) throws ValidationException {
+        User user = userStorage.getUser(userId);
+        validateUser(user);
+        return user.getFriends();
+    }
+
     public List<User> showCommonFriends(long userId, long friendId) throws ValidationException {
+        long start = System.nanoTime();
+        try {
+            return findCommonFriends(userId, friendId);
+        } finally {
+            metrics.commonFriends().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<User> findCommonFriends(long userId, long friendId) throws ValidationException {
         List<User> commonFriends = new ArrayList<>();
 
         User user = userStorage.getUser(userId);
@@ -76,31 +227,141 @@ public class UserService {
         Set<Long> friendFriends = friend.getFriends();
 
         if (userFriends.isEmpty() || friendFriends.isEmpty()) {
-            log.info("User with id {} and friend with id {} have no common friends", userId, friendId);
+            log.debug("User with id {} and friend with id {} have no common friends", userId, friendId);
 
         } else {
-            userFriends.retainAll(friendFriends);
-            log.info("User with id {} and friend with id {} have {} common friends", userId, friendId, userFriends.size());
-            userFriends.stream().map(userStorage::getUser).forEach(commonFriends::add);
+            for (Long id : userFriends) {
+                if (friendFriends.contains(id)) {
+                    userStorage.findUser(id).ifPresent(commonFriends::add);
+                }
+            }
+            log.debug("User with id {} and friend with id {} have {} common friends", userId, friendId, commonFriends.size());
         }
         return commonFriends;
     }
 
 
-    public void validateUser(User user) throws ValidationException {
-        String userName = user.getName();
+    // A page costs a seek in the sorted friend set plus one lookup per returned friend, whose own friend set
+    // is only counted, never copied
+    public UserPage getFriendPage(long userId, String cursor, int limit, Set<UserField> fields)
+            throws ValidationException {
+        validateLimit(limit);
+        User user = userStorage.getUser(userId);
+        validateUser(user);
+        return page(user.getFriends().after(parseCursor(cursor)), null, limit, fields);
+    }
+
+    // Walks the smaller friend set from the cursor and probes the larger one, so a page costs up to the size
+    // of the smaller set when common friends are sparse
+    public UserPage getCommonFriendPage(long userId, long otherId, String cursor, int limit, Set<UserField> fields)
+            throws ValidationException {
+        validateLimit(limit);
+        User user = userStorage.getUser(userId);
+        User other = userStorage.getUser(otherId);
+        validateUser(user);
+        validateUser(other);
+        SortedIdSet smaller = smaller(user.getFriends(), other.getFriends());
+        SortedIdSet larger = smaller == user.getFriends() ? other.getFriends() : user.getFriends();
+        return page(smaller.after(parseCursor(cursor)), larger, limit, fields);
+    }
+
+    public CountResult countFriends(long userId) throws ValidationException {
+        User user = userStorage.getUser(userId);
+        validateUser(user);
+        return new CountResult(user.getFriends().size());
+    }
+
+    public CountResult countCommonFriends(long userId, long otherId) throws ValidationException {
+        User user = userStorage.getUser(userId);
+        User other = userStorage.getUser(otherId);
+        validateUser(user);
+        validateUser(other);
+        SortedIdSet smaller = smaller(user.getFriends(), other.getFriends());
+        SortedIdSet larger = smaller == user.getFriends() ? other.getFriends() : user.getFriends();
+        long count = 0;
+        for (Long id : smaller) {
+            if (larger.contains(id)) {
+                count++;
+            }
+        }
+        return new CountResult(count);
+    }
+
+    // Reads one id past the page to tell whether another page follows
+    private UserPage page(Iterable<Long> ids, SortedIdSet filter, int limit, Set<UserField> fields) {
+        List<UserSummary> items = new ArrayList<>(Math.min(limit, 64));
+        long last = 0;
+        boolean more = false;
+        for (Long id : ids) {
+            if (filter != null && !filter.contains(id)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                more = true;
+                break;
+            }
+            Optional<User> friend = userStorage.findUser(id);
+            if (friend.isPresent()) {
+                items.add(UserSummary.of(friend.get(), fields));
+                last = id;
+            }
+        }
+        return new UserPage(items, more ? Long.toString(last) : null);
+    }
+
+    private static SortedIdSet smaller(SortedIdSet first, SortedIdSet second) {
+        return first.size() <= second.size() ? first : second;
+    }
 
-        if (userName == null || userName.isEmpty() || userName.isBlank()) {
-            userName = user.getLogin();
-            user.setName(userName);
-            log.info("User name not provided, using login as name: {}", userName);
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return Long.MIN_VALUE;
         }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private void validateLimit(int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Limit must be greater than 0");
+        }
+        if (limit > maxResultSize) {
+            log.debug("Requested limit {} exceeds the cap of {}", limit, maxResultSize);
+            throw new ValidationException("Limit must not be greater than " + maxResultSize);
+        }
+    }
 
-        if (user.getBirthday().isAfter(LocalDate.now())) {
-            String errorMessage = "User birthday must be before current date";
-            log.error("Validation failed: {}", errorMessage);
+
+    // Both run under the stripes of both users, right after the storage change they record; they return
+    // true so they can be chained onto it
+    private boolean friendshipAdded(long userId, long friendId) {
+        metrics.friendshipAdded();
+        changeFeed.publishEdge(ChangeType.FRIEND_ADDED, userId, friendId);
+        return true;
+    }
+
+    private boolean friendshipRemoved(long userId, long friendId) {
+        metrics.friendshipRemoved();
+        changeFeed.publishEdge(ChangeType.FRIEND_REMOVED, userId, friendId);
+        return true;
+    }
+
+    public void validateUser(User user) throws ValidationException {
+        List<String> violations = userValidator.validate(user);
+        if (!violations.isEmpty()) {
+            String errorMessage = String.join("; ", violations);
+            log.debug("User validation failed: {}", errorMessage);
             throw new ValidationException(errorMessage);
         }
+
+        String userName = user.getName();
+        if (userName == null || userName.isBlank()) {
+            user.setName(user.getLogin());
+            log.debug("User name not provided, using login as name: {}", user.getLogin());
+        }
     }
 
 
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Space-Saving heavy hitters over a fixed number of counters. A tracked item's count overestimates its true
+// count by at most its own error, which never exceeds total / capacity. Each counter also keeps a
+// HyperLogLog of the members that hit the item since the counter was assigned to it.
+public class SpaceSaving {
+
+    private final int capacity;
+    private final int precision;
+    private final Map<Long, Counter> counters;
+    private final NavigableSet<Counter> byCount = new TreeSet<>(Comparator.comparingLong((Counter c) -> c.count)
+            .thenComparingLong(c -> c.item));
+    private long total;
+
+    public SpaceSaving(int capacity, int precision) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Space-Saving capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.precision = precision;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void add(long item, long member) {
+        total++;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count++;
+        } else if (counters.size() < capacity) {
+            counter = new Counter(item, new HyperLogLog(precision));
+            counter.count = 1;
+            counters.put(item, counter);
+        } else {
+            counter = byCount.pollFirst();
+            counters.remove(counter.item);
+            counter.item = item;
+            counter.error = counter.count;
+            counter.count++;
+            counter.members.clear();
+            counters.put(item, counter);
+        }
+        counter.members.add(member);
+        byCount.add(counter);
+    }
+
+    public synchronized void remove(long item) {
+        if (total > 0) {
+            total--;
+        }
+        Counter counter = counters.get(item);
+        if (counter == null || counter.count <= counter.error) {
+            return;
+        }
+        byCount.remove(counter);
+        counter.count--;
+        byCount.add(counter);
+    }
+
+    // Drops the item's counter, e.g. once the item no longer exists, and the hits it is known to have had
+    public synchronized void forget(long item) {
+        Counter counter = counters.remove(item);
+        if (counter == null) {
+            return;
+        }
+        byCount.remove(counter);
+        total = Math.max(0, total - (counter.count - counter.error));
+    }
+
+    public synchronized List<HeavyHitter> top(int size) {
+        List<HeavyHitter> top = new ArrayList<>(Math.min(size, counters.size()));
+        Iterator<Counter> iterator = byCount.descendingIterator();
+        while (iterator.hasNext() && top.size() < size) {
+            Counter counter = iterator.next();
+            top.add(new HeavyHitter(counter.item, counter.count, counter.error, counter.members.estimate()));
+        }
+        return top;
+    }
+
+    public synchronized long getMaxError() {
+        return total / capacity;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getMembersStandardError() {
+        return HyperLogLog.standardError(precision);
+    }
+
+    public record HeavyHitter(long item, long count, long error, long distinctMembers) {
+    }
+
+    private static final class Counter {
+        private long item;
+        private long count;
+        private long error;
+        private final HyperLogLog members;
+
+        private Counter(long item, HyperLogLog members) {
+            this.item = item;
+            this.members = members;
+        }
+    }
+}
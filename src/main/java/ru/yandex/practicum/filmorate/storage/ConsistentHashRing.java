@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Maps entity ids onto nodes. Every node owns a number of virtual points on a 64-bit ring and an id
+// belongs to the first point at or after its hash, so adding or removing a node only moves the ids
+// between that node's points and their predecessors instead of reshuffling everything. Points and ids are
+// hashed in separate domains: with the same hash, point p of node 0 would sit exactly where id p does and
+// claim every small id.
+public class ConsistentHashRing<T> {
+
+    private static final long POINT_SALT = 0x9e3779b97f4a7c15L;
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    private final List<T> nodes;
+
+    public ConsistentHashRing(List<T> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("Ring needs at least one node and one virtual node per node");
+        }
+        this.nodes = List.copyOf(nodes);
+        for (int node = 0; node < nodes.size(); node++) {
+            for (int point = 0; point < virtualNodes; point++) {
+                ring.put(mix(mix(((long) node << 32) | point) ^ POINT_SALT), nodes.get(node));
+            }
+        }
+    }
+
+    public T nodeFor(long id) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(mix(id));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<T> getNodes() {
+        return nodes;
+    }
+
+    // fmix64 from MurmurHash3, the same finalizer HyperLogLog uses for like hashing
+    private static long mix(long value) {
+        long hash = value;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,241 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Append-only spill file for cold entities. Each record is [id][length][encoded entity]; an in-memory index
+// points at the latest record per id, so rewriting an entity just appends and orphans the old bytes. Once
+// more than half of the file is orphaned, live records are copied one by one into a fresh generation of the
+// file. Records are read and written concurrently under the read lock, at positions reserved up front;
+// compaction takes the write lock. Entities are encoded and decoded outside either lock. Callers serialize
+// operations on the same id. The log is scratch space, not persistence: it starts empty and is deleted when
+// closed.
+final class EntityLog<T> {
+
+    private static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final long MIN_COMPACTION_SIZE = 16L << 20;
+
+    private final Path directory;
+    private final String name;
+    private final ObjectMapper mapper;
+    private final Class<T> type;
+    private final Map<Long, Location> index = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong end = new AtomicLong();
+    private final AtomicLong liveBytes = new AtomicLong();
+    private volatile FileChannel channel;
+    private int generation;
+
+    EntityLog(Path directory, String name, ObjectMapper mapper, Class<T> type) {
+        this.directory = directory;
+        this.name = name;
+        this.mapper = mapper;
+        this.type = type;
+        try {
+            Files.createDirectories(directory);
+            this.channel = open(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    long fileSize() {
+        return end.get();
+    }
+
+    List<Long> ids() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    void append(long id, T entity) {
+        byte[] encoded = encode(entity);
+        Location previous;
+        lock.readLock().lock();
+        try {
+            Location location = new Location(end.getAndAdd(HEADER_SIZE + encoded.length), encoded.length);
+            write(channel, location, id, encoded);
+            liveBytes.addAndGet(location.size());
+            previous = index.put(id, location);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        discard(previous);
+    }
+
+    // A detached copy of the entity, which stays in the log
+    T read(long id) {
+        byte[] record;
+        lock.readLock().lock();
+        try {
+            Location location = index.get(id);
+            if (location == null) {
+                return null;
+            }
+            record = readRecord(location);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return decode(record);
+    }
+
+    // Removes the entity from the log and returns it, for promotion back to the hot tier
+    T take(long id) {
+        Location location;
+        byte[] record;
+        lock.readLock().lock();
+        try {
+            location = index.remove(id);
+            if (location == null) {
+                return null;
+            }
+            record = readRecord(location);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        discard(location);
+        return decode(record);
+    }
+
+    void remove(long id) {
+        Location location;
+        lock.readLock().lock();
+        try {
+            location = index.remove(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+        discard(location);
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Called without the read lock held, since compaction needs the write lock
+    private void discard(Location location) {
+        if (location == null) {
+            return;
+        }
+        liveBytes.addAndGet(-location.size());
+        if (needsCompaction()) {
+            compact();
+        }
+    }
+
+    private boolean needsCompaction() {
+        long size = end.get();
+        return size > MIN_COMPACTION_SIZE && liveBytes.get() * 2 < size;
+    }
+
+    private byte[] encode(T entity) {
+        try {
+            return mapper.writeValueAsBytes(entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private T decode(byte[] record) {
+        try {
+            return mapper.readValue(record, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] readRecord(Location location) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(location.length());
+        long position = location.offset() + HEADER_SIZE;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated record at offset " + location.offset() + " of " + name);
+            }
+        }
+        return buffer.array();
+    }
+
+    // Copies one live record at a time, so only a single record is ever held on heap
+    private void compact() {
+        lock.writeLock().lock();
+        try {
+            if (!needsCompaction()) {
+                // Another thread compacted while this one waited for the lock
+                return;
+            }
+            FileChannel compacted = open(generation + 1);
+            long position = 0;
+            for (Map.Entry<Long, Location> entry : index.entrySet()) {
+                byte[] record = readRecord(entry.getValue());
+                Location moved = new Location(position, record.length);
+                write(compacted, moved, entry.getKey(), record);
+                entry.setValue(moved);
+                position += moved.size();
+            }
+            end.set(position);
+            liveBytes.set(position);
+            channel.close();
+            channel = compacted;
+            generation++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void write(FileChannel target, Location location, long id, byte[] encoded) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + encoded.length)
+                .putLong(id)
+                .putInt(encoded.length)
+                .put(encoded)
+                .flip();
+        long position = location.offset();
+        while (record.hasRemaining()) {
+            position += target.write(record, position);
+        }
+    }
+
+    private FileChannel open(int generation) throws IOException {
+        return FileChannel.open(directory.resolve(name + "-" + generation + ".log"),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    private record Location(long offset, int length) {
+
+        long size() {
+            return HEADER_SIZE + length;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// One shard of the film catalog as PartitionedFilmStorage sees it. A partition stores the films routed to
+// it and never assigns ids; it may live in this JVM (LocalFilmPartition) or in another process
+// (HttpFilmPartition), so films returned by a remote partition are detached copies.
+public interface FilmPartition {
+
+    List<Film> getFilms();
+
+    List<FilmSummary> getFilmSummaries(Set<FilmField> fields);
+
+    // The partition's own top-K, ranked like InMemoryFilmStorage.mostLiked
+    List<Film> getMostLikedFilms(int size);
+
+    Optional<Film> findFilm(long id);
+
+    // Stores a film whose id the coordinator has already assigned; an id the partition already holds is rejected
+    Film insertFilm(Film film);
+
+    // The highest id the partition has held, so a restarted coordinator resumes its sequence past it
+    long getMaxFilmId();
+
+    Film updateFilm(Film film);
+
+    boolean addLike(long filmId, long userId);
+
+    boolean removeLike(long filmId, long userId);
+
+    boolean replicateFilm(Film film);
+
+    Film deleteFilm(long id);
+}
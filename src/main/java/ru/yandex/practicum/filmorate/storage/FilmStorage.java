@@ -1,19 +1,46 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface FilmStorage {
 
     List<Film> getFilms();
 
+    // Projects every film without serializing its like set; only its size is read
+    List<FilmSummary> getFilmSummaries(Set<FilmField> fields);
+
+    // Most liked first; films with the same number of likes are ordered by id
+    List<Film> getMostLikedFilms(int size);
+
     Film getFilm(long id);
 
+    Optional<Film> findFilm(long id);
+
     Film addFilm(Film film);
 
+    // Replaces the film's own fields and keeps the likes it has, whatever the given film carries
     Film updateFilm(Film film);
 
+    // Like sets are only changed through these, so an implementation can keep them consistent with
+    // copies it holds elsewhere. Both report whether the set changed.
+    boolean addLike(long filmId, long userId);
+
+    boolean removeLike(long filmId, long userId);
+
+    // Stores a film replicated from a leader under the id it already carries, replacing any previous
+    // version but keeping the likes it has here, which are replicated one by one; returns whether the
+    // film was new
+    boolean replicateFilm(Film film);
+
+    // Removes the film and returns it, likes included, so the caller can clean up the edges it took along
+    Film deleteFilm(long id);
+
     long getNextFilmId();
 
 }
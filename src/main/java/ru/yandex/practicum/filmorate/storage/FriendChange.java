@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.storage;
+
+// One step of UserStorage.updateFriends: adds or removes the edge to friendId
+public record FriendChange(long friendId, boolean add) {
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// A partition running in another process with the partition-node profile
+public class HttpFilmPartition implements FilmPartition {
+
+    private static final TypeReference<List<Film>> FILM_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<FilmSummary>> SUMMARY_LIST = new TypeReference<>() {
+    };
+
+    private final PartitionHttpClient client;
+
+    public HttpFilmPartition(String baseUrl, HttpClient httpClient, ObjectMapper mapper, Duration timeout) {
+        this.client = new PartitionHttpClient(baseUrl, httpClient, mapper, timeout);
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return client.send("GET", "/partition/films", null, FILM_LIST);
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        String selection = fields.stream().map(FilmField::getParameter).collect(Collectors.joining(","));
+        return client.send("GET", "/partition/films/summaries?fields=" + selection, null, SUMMARY_LIST);
+    }
+
+    @Override
+    public List<Film> getMostLikedFilms(int size) {
+        return client.send("GET", "/partition/films/popular?size=" + size, null, FILM_LIST);
+    }
+
+    @Override
+    public Optional<Film> findFilm(long id) {
+        try {
+            return Optional.of(client.send("GET", "/partition/films/" + id, null, Film.class));
+        } catch (NotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Film insertFilm(Film film) {
+        return client.send("POST", "/partition/films", film, Film.class);
+    }
+
+    @Override
+    public long getMaxFilmId() {
+        return client.send("GET", "/partition/films/max-id", null, Long.class);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return client.send("PUT", "/partition/films", film, Film.class);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return client.send("PUT", "/partition/films/" + filmId + "/likes/" + userId, null, Boolean.class);
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return client.send("DELETE", "/partition/films/" + filmId + "/likes/" + userId, null, Boolean.class);
+    }
+
+    @Override
+    public boolean replicateFilm(Film film) {
+        return client.send("PUT", "/partition/films/replica", film, Boolean.class);
+    }
+
+    @Override
+    public Film deleteFilm(long id) {
+        return client.send("DELETE", "/partition/films/" + id, null, Film.class);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpFilmPartition " + client;
+    }
+}
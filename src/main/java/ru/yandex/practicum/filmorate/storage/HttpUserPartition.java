@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// A partition running in another process with the partition-node profile
+public class HttpUserPartition implements UserPartition {
+
+    private static final TypeReference<List<User>> USER_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<UserSummary>> SUMMARY_LIST = new TypeReference<>() {
+    };
+
+    private final PartitionHttpClient client;
+
+    public HttpUserPartition(String baseUrl, HttpClient httpClient, ObjectMapper mapper, Duration timeout) {
+        this.client = new PartitionHttpClient(baseUrl, httpClient, mapper, timeout);
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return client.send("GET", "/partition/users", null, USER_LIST);
+    }
+
+    @Override
+    public List<UserSummary> getUserSummaries(Set<UserField> fields) {
+        String selection = fields.stream().map(UserField::getParameter).collect(Collectors.joining(","));
+        return client.send("GET", "/partition/users/summaries?fields=" + selection, null, SUMMARY_LIST);
+    }
+
+    @Override
+    public Optional<User> findUser(long id) {
+        try {
+            return Optional.of(client.send("GET", "/partition/users/" + id, null, User.class));
+        } catch (NotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public User insertUser(User user) {
+        return client.send("POST", "/partition/users", user, User.class);
+    }
+
+    @Override
+    public long getMaxUserId() {
+        return client.send("GET", "/partition/users/max-id", null, Long.class);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return client.send("PUT", "/partition/users", user, User.class);
+    }
+
+    @Override
+    public boolean replicateUser(User user) {
+        return client.send("PUT", "/partition/users/replica", user, Boolean.class);
+    }
+
+    @Override
+    public User deleteUser(long id) {
+        return client.send("DELETE", "/partition/users/" + id, null, User.class);
+    }
+
+    @Override
+    public boolean detachFriend(long userId, long friendId) {
+        return client.send("POST", "/partition/users/" + userId + "/friends/" + friendId + "/detach", null,
+                Boolean.class);
+    }
+
+    @Override
+    public boolean linkFriend(long userId, long friendId) {
+        return client.send("PUT", "/partition/users/" + userId + "/friends/" + friendId, null, Boolean.class);
+    }
+
+    @Override
+    public boolean unlinkFriend(long userId, long friendId) {
+        return client.send("DELETE", "/partition/users/" + userId + "/friends/" + friendId, null, Boolean.class);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpUserPartition " + client;
+    }
+}
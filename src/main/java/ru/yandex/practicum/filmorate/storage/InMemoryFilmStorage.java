@@ -3,66 +3,168 @@ package ru.yandex.practicum.filmorate.storage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
 
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
 
-    private final Map<Long, Film> films = new HashMap<>();
+    private final Map<Long, Film> films = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final StripedLocks locks = new StripedLocks();
 
     @Override
     public List<Film> getFilms() {
         return new ArrayList<>(films.values());
     }
 
+    @Override
+    public List<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        List<FilmSummary> summaries = new ArrayList<>(films.size());
+        for (Film film : films.values()) {
+            summaries.add(FilmSummary.of(film, fields));
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<Film> getMostLikedFilms(int size) {
+        return mostLiked(films.values(), size);
+    }
+
+    // Bounded top-K instead of sorting every film: a heap of at most size films with the weakest on top.
+    // Films rank by like count, then by lower id, so ties are kept and the order is the same on every call.
+    static List<Film> mostLiked(Iterable<Film> candidates, int size) {
+        if (size <= 0) {
+            return List.of();
+        }
+        PriorityQueue<RankedFilm> top = new PriorityQueue<>(size + 1, RankedFilm.BEST_FIRST.reversed());
+        for (Film film : candidates) {
+            // Read once: the like set may change while the films are ranked
+            RankedFilm ranked = new RankedFilm(film, film.getLikes().size());
+            if (top.size() < size) {
+                top.add(ranked);
+            } else if (RankedFilm.BEST_FIRST.compare(ranked, top.peek()) < 0) {
+                top.poll();
+                top.add(ranked);
+            }
+        }
+        List<RankedFilm> ranked = new ArrayList<>(top);
+        ranked.sort(RankedFilm.BEST_FIRST);
+        List<Film> films = new ArrayList<>(ranked.size());
+        for (RankedFilm film : ranked) {
+            films.add(film.film());
+        }
+        return films;
+    }
+
     @Override
     public Film getFilm(long id) {
-        if (!films.containsKey(id)) {
-            String errorMessage = "Film with id " + id + " not found";
-            log.error("Cannot get film: {}", errorMessage);
-            throw new NotFoundException(errorMessage);
+        Film film = films.get(id);
+        if (film == null) {
+            log.debug("Cannot get film: Film with id {} not found", id);
+            throw new NotFoundException("Film with id " + id + " not found");
         }
-        return films.get(id);
+        return film;
+    }
+
+    @Override
+    public Optional<Film> findFilm(long id) {
+        return Optional.ofNullable(films.get(id));
     }
 
     @Override
     public Film addFilm(Film film) {
-        long id = getNextFilmId();
-        film.setId(id);
-        films.put(id, film);
-        log.info("Film with id {} added", id);
-        return film;
+        film.setId(getNextFilmId());
+        return insertFilm(film);
     }
 
     @Override
     public Film updateFilm(Film film) {
-        if (!films.containsKey(film.getId())) {
-            String errorMessage = "Film with id " + film.getId() + " not found";
-            log.error("Cannot update film: {}", errorMessage);
-            throw new NotFoundException(errorMessage);
-        }
+        locks.withLocked(film.getId(), () -> {
+            Film existing = films.get(film.getId());
+            if (existing == null) {
+                log.debug("Cannot update film: Film with id {} not found", film.getId());
+                throw new NotFoundException("Film with id " + film.getId() + " not found");
+            }
+            // Likes are owned by the like endpoints, an update must not drop or forge them
+            film.setLikes(existing.getLikes());
+            films.put(film.getId(), film);
+            return film;
+        });
 
-        films.put(film.getId(), film);
         log.info("Film with id {} updated", film.getId());
         return film;
     }
 
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return locks.withLocked(filmId, () -> getFilm(filmId).getLikes().add(userId));
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return locks.withLocked(filmId, () -> getFilm(filmId).getLikes().remove(userId));
+    }
+
+    @Override
+    public boolean replicateFilm(Film film) {
+        idSequence.accumulateAndGet(film.getId(), Math::max);
+        return locks.withLocked(film.getId(), () -> {
+            Film existing = films.get(film.getId());
+            film.setLikes(existing == null ? null : existing.getLikes());
+            return films.put(film.getId(), film) == null;
+        });
+    }
+
+    @Override
+    public Film deleteFilm(long id) {
+        Film film = locks.withLocked(id, () -> films.remove(id));
+        if (film == null) {
+            log.debug("Cannot delete film: Film with id {} not found", id);
+            throw new NotFoundException("Film with id " + id + " not found");
+        }
+        log.info("Film with id {} deleted", id);
+        return film;
+    }
+
     @Override
     public long getNextFilmId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        return idSequence.incrementAndGet();
     }
 
+    // The highest id this storage has held, deleted ones included
+    long getMaxFilmId() {
+        return idSequence.get();
+    }
 
+    // Used through LocalFilmPartition: PartitionedFilmStorage assigns ids itself before routing the film
+    Film insertFilm(Film film) {
+        if (films.putIfAbsent(film.getId(), film) != null) {
+            throw new ValidationException("Film with id " + film.getId() + " already exists");
+        }
+        idSequence.accumulateAndGet(film.getId(), Math::max);
+        log.info("Film with id {} added", film.getId());
+        return film;
+    }
+
+    private record RankedFilm(Film film, int likes) {
+
+        static final Comparator<RankedFilm> BEST_FIRST = Comparator.comparingInt(RankedFilm::likes).reversed()
+                .thenComparingLong(ranked -> ranked.film().getId());
+    }
 }
@@ -3,66 +3,198 @@ package ru.yandex.practicum.filmorate.storage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
 
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Repository
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
 
-    private final Map<Long, User> users = new HashMap<>();
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final AtomicLong idSequence = new AtomicLong();
+    private final StripedLocks locks = new StripedLocks();
 
     @Override
     public List<User> getUsers() {
         return new ArrayList<>(users.values());
     }
 
+    @Override
+    public List<UserSummary> getUserSummaries(Set<UserField> fields) {
+        List<UserSummary> summaries = new ArrayList<>(users.size());
+        for (User user : users.values()) {
+            summaries.add(UserSummary.of(user, fields));
+        }
+        return summaries;
+    }
+
     @Override
     public User getUser(long id) {
-        if (!users.containsKey(id)) {
-            String errorMessage = "User with id " + id + " not found";
-            log.error("Cannot get user: {}", errorMessage);
-            throw new NotFoundException(errorMessage);
+        User user = users.get(id);
+        if (user == null) {
+            log.debug("Cannot get user: User with id {} not found", id);
+            throw new NotFoundException("User with id " + id + " not found");
         }
-        return users.get(id);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findUser(long id) {
+        return Optional.ofNullable(users.get(id));
     }
 
     @Override
     public User addUser(User user) {
-        long id = getNextUserId();
-        user.setId(id);
-        users.put(id, user);
-        log.info("User with id {} added", id);
-        return user;
+        user.setId(getNextUserId());
+        return insertUser(user);
     }
 
     @Override
     public User updateUser(User user) {
-        if (!users.containsKey(user.getId())) {
-            String errorMessage = "User with id " + user.getId() + " not found";
-            log.error("Cannot update user: {}", errorMessage);
-            throw new NotFoundException(errorMessage);
-        }
+        locks.withLocked(user.getId(), () -> {
+            User existing = users.get(user.getId());
+            if (existing == null) {
+                log.debug("Cannot update user: User with id {} not found", user.getId());
+                throw new NotFoundException("User with id " + user.getId() + " not found");
+            }
+            // Friendships are owned by the friend endpoints, an update must not drop or forge edges
+            user.setFriends(existing.getFriends());
+            users.put(user.getId(), user);
+            return user;
+        });
 
-        users.put(user.getId(), user);
         log.info("User with id {} updated", user.getId());
         return user;
 
     }
 
+    @Override
+    public boolean replicateUser(User user) {
+        idSequence.accumulateAndGet(user.getId(), Math::max);
+        return locks.withLocked(user.getId(), () -> {
+            User existing = users.get(user.getId());
+            user.setFriends(existing == null ? null : existing.getFriends());
+            return users.put(user.getId(), user) == null;
+        });
+    }
+
+    // Runs under the user's stripe, which addFriend also takes: once it returns, no edge can be added to
+    // the removed user, so its friend set is final
+    @Override
+    public User deleteUser(long id) {
+        User user = locks.withLocked(id, () -> {
+            User removed = users.remove(id);
+            if (removed == null) {
+                log.debug("Cannot delete user: User with id {} not found", id);
+                throw new NotFoundException("User with id " + id + " not found");
+            }
+            return removed;
+        });
+
+        log.info("User with id {} deleted", id);
+        return user;
+    }
+
+    @Override
+    public boolean addFriend(long userId, long friendId) {
+        return locks.withPairLocked(userId, friendId, () -> {
+            User user = getUser(userId);
+            User friend = getUser(friendId);
+            if (!user.getFriends().add(friendId)) {
+                return false;
+            }
+            friend.getFriends().add(userId);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean removeFriend(long userId, long friendId) {
+        return locks.withPairLocked(userId, friendId, () -> {
+            User user = getUser(userId);
+            User friend = getUser(friendId);
+            if (!user.getFriends().remove(friendId)) {
+                return false;
+            }
+            friend.getFriends().remove(userId);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean detachFriend(long userId, long friendId) {
+        return locks.withLocked(userId, () -> {
+            User user = users.get(userId);
+            return user != null && user.getFriends().remove(friendId);
+        });
+    }
+
+    @Override
+    public boolean[] updateFriends(long userId, List<FriendChange> changes) {
+        long[] ids = new long[changes.size() + 1];
+        ids[0] = userId;
+        for (int i = 0; i < changes.size(); i++) {
+            ids[i + 1] = changes.get(i).friendId();
+        }
+        return locks.withAllLocked(ids, () -> {
+            User user = getUser(userId);
+            boolean[] changed = new boolean[changes.size()];
+            for (int i = 0; i < changes.size(); i++) {
+                FriendChange change = changes.get(i);
+                User friend = users.get(change.friendId());
+                if (friend == null || friend == user) {
+                    continue;
+                }
+                if (change.add()) {
+                    changed[i] = user.getFriends().add(friend.getId());
+                    friend.getFriends().add(userId);
+                } else {
+                    changed[i] = user.getFriends().remove(friend.getId());
+                    friend.getFriends().remove(userId);
+                }
+            }
+            return changed;
+        });
+    }
+
     @Override
     public long getNextUserId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+        return idSequence.incrementAndGet();
+    }
+
+    // The highest id this storage has held, deleted ones included
+    long getMaxUserId() {
+        return idSequence.get();
+    }
+
+    // Partition-side primitives behind LocalUserPartition: PartitionedUserStorage assigns ids itself and keeps
+    // the two halves of a cross-partition friendship consistent under its own locks
+    User insertUser(User user) {
+        if (users.putIfAbsent(user.getId(), user) != null) {
+            throw new ValidationException("User with id " + user.getId() + " already exists");
+        }
+        idSequence.accumulateAndGet(user.getId(), Math::max);
+        log.info("User with id {} added", user.getId());
+        return user;
+    }
+
+    boolean linkFriend(long userId, long friendId) {
+        return getUser(userId).getFriends().add(friendId);
+    }
+
+    boolean unlinkFriend(long userId, long friendId) {
+        return getUser(userId).getFriends().remove(friendId);
     }
 
 
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// A partition held in this JVM; also what a partition node serves over HTTP
+public class LocalFilmPartition implements FilmPartition {
+
+    private final InMemoryFilmStorage storage;
+
+    public LocalFilmPartition(InMemoryFilmStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return storage.getFilms();
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        return storage.getFilmSummaries(fields);
+    }
+
+    @Override
+    public List<Film> getMostLikedFilms(int size) {
+        return storage.getMostLikedFilms(size);
+    }
+
+    @Override
+    public Optional<Film> findFilm(long id) {
+        return storage.findFilm(id);
+    }
+
+    @Override
+    public Film insertFilm(Film film) {
+        return storage.insertFilm(film);
+    }
+
+    @Override
+    public long getMaxFilmId() {
+        return storage.getMaxFilmId();
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return storage.updateFilm(film);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return storage.addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return storage.removeLike(filmId, userId);
+    }
+
+    @Override
+    public boolean replicateFilm(Film film) {
+        return storage.replicateFilm(film);
+    }
+
+    @Override
+    public Film deleteFilm(long id) {
+        return storage.deleteFilm(id);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// A partition held in this JVM; also what a partition node serves over HTTP
+public class LocalUserPartition implements UserPartition {
+
+    private final InMemoryUserStorage storage;
+
+    public LocalUserPartition(InMemoryUserStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return storage.getUsers();
+    }
+
+    @Override
+    public List<UserSummary> getUserSummaries(Set<UserField> fields) {
+        return storage.getUserSummaries(fields);
+    }
+
+    @Override
+    public Optional<User> findUser(long id) {
+        return storage.findUser(id);
+    }
+
+    @Override
+    public User insertUser(User user) {
+        return storage.insertUser(user);
+    }
+
+    @Override
+    public long getMaxUserId() {
+        return storage.getMaxUserId();
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return storage.updateUser(user);
+    }
+
+    @Override
+    public boolean replicateUser(User user) {
+        return storage.replicateUser(user);
+    }
+
+    @Override
+    public User deleteUser(long id) {
+        return storage.deleteUser(id);
+    }
+
+    @Override
+    public boolean detachFriend(long userId, long friendId) {
+        return storage.detachFriend(userId, friendId);
+    }
+
+    @Override
+    public boolean linkFriend(long userId, long friendId) {
+        return storage.linkFriend(userId, friendId);
+    }
+
+    @Override
+    public boolean unlinkFriend(long userId, long friendId) {
+        return storage.unlinkFriend(userId, friendId);
+    }
+}
@@ -0,0 +1,188 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class MeteredFilmStorage implements FilmStorage {
+
+    private final FilmStorage delegate;
+    private final FilmorateMetrics metrics;
+    private final Timer getFilmsTimer;
+    private final Timer getFilmSummariesTimer;
+    private final Timer getMostLikedFilmsTimer;
+    private final Timer getFilmTimer;
+    private final Timer addFilmTimer;
+    private final Timer updateFilmTimer;
+    private final Timer replicateFilmTimer;
+    private final Timer addLikeTimer;
+    private final Timer removeLikeTimer;
+    private final Timer deleteFilmTimer;
+    private final Counter misses;
+
+    public MeteredFilmStorage(FilmStorage delegate, FilmorateMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.getFilmsTimer = metrics.timer("filmorate.storage", "getFilms");
+        this.getFilmSummariesTimer = metrics.timer("filmorate.storage", "getFilmSummaries");
+        this.getMostLikedFilmsTimer = metrics.timer("filmorate.storage", "getMostLikedFilms");
+        this.getFilmTimer = metrics.timer("filmorate.storage", "getFilm");
+        this.addFilmTimer = metrics.timer("filmorate.storage", "addFilm");
+        this.updateFilmTimer = metrics.timer("filmorate.storage", "updateFilm");
+        this.replicateFilmTimer = metrics.timer("filmorate.storage", "replicateFilm");
+        this.addLikeTimer = metrics.timer("filmorate.storage", "addLike");
+        this.removeLikeTimer = metrics.timer("filmorate.storage", "removeLike");
+        this.deleteFilmTimer = metrics.timer("filmorate.storage", "deleteFilm");
+        this.misses = metrics.notFoundCounter("film");
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getFilms();
+        } finally {
+            getFilmsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getFilmSummaries(fields);
+        } finally {
+            getFilmSummariesTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public List<Film> getMostLikedFilms(int size) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getMostLikedFilms(size);
+        } finally {
+            getMostLikedFilmsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Film getFilm(long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getFilm(id);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            getFilmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Optional<Film> findFilm(long id) {
+        long start = System.nanoTime();
+        Optional<Film> film = delegate.findFilm(id);
+        getFilmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (film.isEmpty()) {
+            misses.increment();
+        }
+        return film;
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        long start = System.nanoTime();
+        try {
+            Film added = delegate.addFilm(film);
+            metrics.filmAdded();
+            return added;
+        } finally {
+            addFilmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateFilm(film);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            updateFilmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addLike(filmId, userId);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            addLikeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.removeLike(filmId, userId);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            removeLikeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean replicateFilm(Film film) {
+        long start = System.nanoTime();
+        try {
+            boolean added = delegate.replicateFilm(film);
+            if (added) {
+                metrics.filmAdded();
+            }
+            return added;
+        } finally {
+            replicateFilmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Film deleteFilm(long id) {
+        long start = System.nanoTime();
+        try {
+            Film deleted = delegate.deleteFilm(id);
+            metrics.filmRemoved();
+            return deleted;
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            deleteFilmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public long getNextFilmId() {
+        return delegate.getNextFilmId();
+    }
+
+
+}
@@ -0,0 +1,203 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class MeteredUserStorage implements UserStorage {
+
+    private final UserStorage delegate;
+    private final FilmorateMetrics metrics;
+    private final Timer getUsersTimer;
+    private final Timer getUserSummariesTimer;
+    private final Timer getUserTimer;
+    private final Timer addUserTimer;
+    private final Timer updateUserTimer;
+    private final Timer replicateUserTimer;
+    private final Timer addFriendTimer;
+    private final Timer removeFriendTimer;
+    private final Timer updateFriendsTimer;
+    private final Timer deleteUserTimer;
+    private final Timer detachFriendTimer;
+    private final Counter misses;
+
+    public MeteredUserStorage(UserStorage delegate, FilmorateMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.getUsersTimer = metrics.timer("filmorate.storage", "getUsers");
+        this.getUserSummariesTimer = metrics.timer("filmorate.storage", "getUserSummaries");
+        this.getUserTimer = metrics.timer("filmorate.storage", "getUser");
+        this.addUserTimer = metrics.timer("filmorate.storage", "addUser");
+        this.updateUserTimer = metrics.timer("filmorate.storage", "updateUser");
+        this.replicateUserTimer = metrics.timer("filmorate.storage", "replicateUser");
+        this.addFriendTimer = metrics.timer("filmorate.storage", "addFriend");
+        this.removeFriendTimer = metrics.timer("filmorate.storage", "removeFriend");
+        this.updateFriendsTimer = metrics.timer("filmorate.storage", "updateFriends");
+        this.deleteUserTimer = metrics.timer("filmorate.storage", "deleteUser");
+        this.detachFriendTimer = metrics.timer("filmorate.storage", "detachFriend");
+        this.misses = metrics.notFoundCounter("user");
+    }
+
+    @Override
+    public List<User> getUsers() {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUsers();
+        } finally {
+            getUsersTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public List<UserSummary> getUserSummaries(Set<UserField> fields) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUserSummaries(fields);
+        } finally {
+            getUserSummariesTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public User getUser(long id) {
+        long start = System.nanoTime();
+        try {
+            return delegate.getUser(id);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            getUserTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public Optional<User> findUser(long id) {
+        long start = System.nanoTime();
+        Optional<User> user = delegate.findUser(id);
+        getUserTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (user.isEmpty()) {
+            misses.increment();
+        }
+        return user;
+    }
+
+    @Override
+    public User addUser(User user) {
+        long start = System.nanoTime();
+        try {
+            User added = delegate.addUser(user);
+            metrics.userAdded();
+            return added;
+        } finally {
+            addUserTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public User updateUser(User user) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateUser(user);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            updateUserTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean replicateUser(User user) {
+        long start = System.nanoTime();
+        try {
+            boolean added = delegate.replicateUser(user);
+            if (added) {
+                metrics.userAdded();
+            }
+            return added;
+        } finally {
+            replicateUserTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public User deleteUser(long id) {
+        long start = System.nanoTime();
+        try {
+            User deleted = delegate.deleteUser(id);
+            metrics.userRemoved();
+            return deleted;
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            deleteUserTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean addFriend(long userId, long friendId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.addFriend(userId, friendId);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            addFriendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean removeFriend(long userId, long friendId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.removeFriend(userId, friendId);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            removeFriendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean detachFriend(long userId, long friendId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.detachFriend(userId, friendId);
+        } finally {
+            detachFriendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean[] updateFriends(long userId, List<FriendChange> changes) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateFriends(userId, changes);
+        } catch (NotFoundException e) {
+            misses.increment();
+            throw e;
+        } finally {
+            updateFriendsTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public long getNextUserId() {
+        return delegate.getNextUserId();
+    }
+
+
+}
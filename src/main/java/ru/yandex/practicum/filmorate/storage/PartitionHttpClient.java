@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// JSON over HTTP to one partition node (see PartitionNodeController). A 404 or 400 from the node is raised
+// again as the NotFoundException or ValidationException it was there, so the coordinator behaves the same
+// on either side of the wire; an unreachable node surfaces as UncheckedIOException.
+final class PartitionHttpClient {
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final Duration timeout;
+
+    PartitionHttpClient(String baseUrl, HttpClient client, ObjectMapper mapper, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.client = client;
+        this.mapper = mapper;
+        this.timeout = timeout;
+    }
+
+    <T> T send(String method, String path, Object body, Class<T> type) {
+        return send(method, path, body, mapper.constructType(type));
+    }
+
+    <T> T send(String method, String path, Object body, TypeReference<T> type) {
+        return send(method, path, body, mapper.getTypeFactory().constructType(type));
+    }
+
+    private <T> T send(String method, String path, Object body, JavaType type) {
+        try {
+            HttpRequest.BodyPublisher publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json")
+                    .timeout(timeout)
+                    .method(method, publisher)
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            return switch (response.statusCode()) {
+                case 200 -> mapper.readValue(response.body(), type);
+                case 404 -> throw new NotFoundException(description(response));
+                case 400 -> throw new ValidationException(description(response));
+                default -> throw new IOException(method + " " + baseUrl + path + " returned " + response.statusCode());
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calling partition " + baseUrl, e);
+        }
+    }
+
+    private String description(HttpResponse<byte[]> response) throws IOException {
+        return mapper.readTree(response.body()).path("description").asText();
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+}
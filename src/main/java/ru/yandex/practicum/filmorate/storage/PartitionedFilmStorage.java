@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shards films by id over partitions placed on a consistent-hash ring. Single-film reads and writes are
+// forwarded to the owning partition; list reads and the popular top-K are scattered to every partition
+// and gathered here. Ids come from one sequence so they stay unique across partitions. Partitions are
+// reached through FilmPartition, in this JVM or on other nodes; the ring places them by list position, so
+// every coordinator must list them in the same order.
+public class PartitionedFilmStorage implements FilmStorage {
+
+    private final ConsistentHashRing<FilmPartition> ring;
+    private final AtomicLong idSequence = new AtomicLong();
+
+    public PartitionedFilmStorage(List<? extends FilmPartition> partitions, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(List.copyOf(partitions), virtualNodes);
+        // Partitions may outlive the coordinator, so the sequence resumes past every id they have held
+        for (FilmPartition partition : ring.getNodes()) {
+            idSequence.accumulateAndGet(partition.getMaxFilmId(), Math::max);
+        }
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        List<Film> films = new ArrayList<>();
+        for (FilmPartition partition : ring.getNodes()) {
+            films.addAll(partition.getFilms());
+        }
+        return films;
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        List<FilmSummary> summaries = new ArrayList<>();
+        for (FilmPartition partition : ring.getNodes()) {
+            summaries.addAll(partition.getFilmSummaries(fields));
+        }
+        return summaries;
+    }
+
+    // Partitions rank by the same order, so every film of the global top-K is also in the top-K of the
+    // partition holding it and merging the partitions' local answers is exact
+    @Override
+    public List<Film> getMostLikedFilms(int size) {
+        List<Film> candidates = new ArrayList<>();
+        for (FilmPartition partition : ring.getNodes()) {
+            candidates.addAll(partition.getMostLikedFilms(size));
+        }
+        return InMemoryFilmStorage.mostLiked(candidates, size);
+    }
+
+    @Override
+    public Film getFilm(long id) {
+        return findFilm(id).orElseThrow(() -> new NotFoundException("Film with id " + id + " not found"));
+    }
+
+    @Override
+    public Optional<Film> findFilm(long id) {
+        return ring.nodeFor(id).findFilm(id);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        film.setId(getNextFilmId());
+        return ring.nodeFor(film.getId()).insertFilm(film);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return ring.nodeFor(film.getId()).updateFilm(film);
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return ring.nodeFor(filmId).addLike(filmId, userId);
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return ring.nodeFor(filmId).removeLike(filmId, userId);
+    }
+
+    @Override
+    public boolean replicateFilm(Film film) {
+        idSequence.accumulateAndGet(film.getId(), Math::max);
+        return ring.nodeFor(film.getId()).replicateFilm(film);
+    }
+
+    @Override
+    public Film deleteFilm(long id) {
+        return ring.nodeFor(id).deleteFilm(id);
+    }
+
+    @Override
+    public long getNextFilmId() {
+        return idSequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shards users by id over partitions placed on a consistent-hash ring. A friendship whose ends live on
+// different partitions is written as two half-edges, one per owner; the coordinator's striped locks
+// make the pair, and any update of either user, one atomic step. Partitions are reached through
+// UserPartition, in this JVM or on other nodes; since those locks live here, a set of partitions is written
+// through a single coordinator, and the ring places them by list position.
+public class PartitionedUserStorage implements UserStorage {
+
+    private final ConsistentHashRing<UserPartition> ring;
+    private final AtomicLong idSequence = new AtomicLong();
+    private final StripedLocks locks = new StripedLocks();
+
+    public PartitionedUserStorage(List<? extends UserPartition> partitions, int virtualNodes) {
+        this.ring = new ConsistentHashRing<>(List.copyOf(partitions), virtualNodes);
+        // Partitions may outlive the coordinator, so the sequence resumes past every id they have held
+        for (UserPartition partition : ring.getNodes()) {
+            idSequence.accumulateAndGet(partition.getMaxUserId(), Math::max);
+        }
+    }
+
+    @Override
+    public List<User> getUsers() {
+        List<User> users = new ArrayList<>();
+        for (UserPartition partition : ring.getNodes()) {
+            users.addAll(partition.getUsers());
+        }
+        return users;
+    }
+
+    @Override
+    public List<UserSummary> getUserSummaries(Set<UserField> fields) {
+        List<UserSummary> summaries = new ArrayList<>();
+        for (UserPartition partition : ring.getNodes()) {
+            summaries.addAll(partition.getUserSummaries(fields));
+        }
+        return summaries;
+    }
+
+    @Override
+    public User getUser(long id) {
+        return findUser(id).orElseThrow(() -> new NotFoundException("User with id " + id + " not found"));
+    }
+
+    @Override
+    public Optional<User> findUser(long id) {
+        return ring.nodeFor(id).findUser(id);
+    }
+
+    @Override
+    public User addUser(User user) {
+        user.setId(getNextUserId());
+        return ring.nodeFor(user.getId()).insertUser(user);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return locks.withLocked(user.getId(), () -> ring.nodeFor(user.getId()).updateUser(user));
+    }
+
+    @Override
+    public boolean replicateUser(User user) {
+        idSequence.accumulateAndGet(user.getId(), Math::max);
+        return locks.withLocked(user.getId(), () -> ring.nodeFor(user.getId()).replicateUser(user));
+    }
+
+    @Override
+    public User deleteUser(long id) {
+        return locks.withLocked(id, () -> ring.nodeFor(id).deleteUser(id));
+    }
+
+    @Override
+    public boolean addFriend(long userId, long friendId) {
+        return locks.withPairLocked(userId, friendId, () -> {
+            getUser(userId);
+            getUser(friendId);
+            return link(userId, friendId);
+        });
+    }
+
+    @Override
+    public boolean removeFriend(long userId, long friendId) {
+        return locks.withPairLocked(userId, friendId, () -> {
+            getUser(userId);
+            getUser(friendId);
+            return unlink(userId, friendId);
+        });
+    }
+
+    @Override
+    public boolean detachFriend(long userId, long friendId) {
+        return locks.withLocked(userId, () -> ring.nodeFor(userId).detachFriend(userId, friendId));
+    }
+
+    @Override
+    public boolean[] updateFriends(long userId, List<FriendChange> changes) {
+        long[] ids = new long[changes.size() + 1];
+        ids[0] = userId;
+        for (int i = 0; i < changes.size(); i++) {
+            ids[i + 1] = changes.get(i).friendId();
+        }
+        return locks.withAllLocked(ids, () -> {
+            getUser(userId);
+            boolean[] changed = new boolean[changes.size()];
+            for (int i = 0; i < changes.size(); i++) {
+                long friendId = changes.get(i).friendId();
+                if (friendId == userId || findUser(friendId).isEmpty()) {
+                    continue;
+                }
+                changed[i] = changes.get(i).add()
+                        ? link(userId, friendId)
+                        : unlink(userId, friendId);
+            }
+            return changed;
+        });
+    }
+
+    @Override
+    public long getNextUserId() {
+        return idSequence.incrementAndGet();
+    }
+
+    private boolean link(long userId, long friendId) {
+        if (!ring.nodeFor(userId).linkFriend(userId, friendId)) {
+            return false;
+        }
+        ring.nodeFor(friendId).linkFriend(friendId, userId);
+        return true;
+    }
+
+    private boolean unlink(long userId, long friendId) {
+        if (!ring.nodeFor(userId).unlinkFriend(userId, friendId)) {
+            return false;
+        }
+        ring.nodeFor(friendId).unlinkFriend(friendId, userId);
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.util.Set;
+
+public interface ReactiveFilmStorage {
+
+    Flux<Film> getFilms();
+
+    Flux<FilmSummary> getFilmSummaries(Set<FilmField> fields);
+
+    Mono<Film> getFilm(long id);
+
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.util.Set;
+
+// Storage calls block on locks and copy whole collections, so they run on the bounded elastic pool rather
+// than on the event loop
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveFilmStorageAdapter implements ReactiveFilmStorage {
+
+    private final FilmStorage filmStorage;
+
+    @Override
+    public Flux<Film> getFilms() {
+        return Flux.defer(() -> Flux.fromIterable(filmStorage.getFilms()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        return Flux.defer(() -> Flux.fromIterable(filmStorage.getFilmSummaries(fields)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Film> getFilm(long id) {
+        return Mono.fromCallable(() -> filmStorage.getFilm(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.util.Set;
+
+public interface ReactiveUserStorage {
+
+    Flux<User> getUsers();
+
+    Flux<UserSummary> getUserSummaries(Set<UserField> fields);
+
+    Mono<User> getUser(long id);
+
+    Flux<User> findUsers(Iterable<Long> ids);
+
+}
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.util.Set;
+
+// Storage calls block on locks and copy whole collections, so they run on the bounded elastic pool rather
+// than on the event loop
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserStorageAdapter implements ReactiveUserStorage {
+
+    private final UserStorage userStorage;
+
+    @Override
+    public Flux<User> getUsers() {
+        return Flux.defer(() -> Flux.fromIterable(userStorage.getUsers()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<UserSummary> getUserSummaries(Set<UserField> fields) {
+        return Flux.defer(() -> Flux.fromIterable(userStorage.getUserSummaries(fields)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Looks users up one at a time as the subscriber requests them, skipping ids whose user is gone
+    @Override
+    public Flux<User> findUsers(Iterable<Long> ids) {
+        return Flux.fromIterable(ids)
+                .<User>handle((id, sink) -> userStorage.findUser(id).ifPresent(sink::next))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<User> getUser(long id) {
+        return Mono.fromCallable(() -> userStorage.getUser(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// Per-entity lock stripes for likes and friendship edges. Whenever more than one stripe is held they are taken in
+// ascending order, so lock ordering is total and concurrent edge updates cannot deadlock. The services hold their
+// own instances around a storage call and the event it publishes; those are always taken before the storage's.
+public final class StripedLocks {
+
+    private static final int STRIPES = 256;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    public StripedLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLocked(long id, Supplier<T> action) {
+        ReentrantLock lock = locks[stripe(id)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean withPairLocked(long first, long second, BooleanSupplier action) {
+        ReentrantLock lower = locks[Math.min(stripe(first), stripe(second))];
+        ReentrantLock upper = locks[Math.max(stripe(first), stripe(second))];
+        lower.lock();
+        try {
+            if (upper != lower) {
+                upper.lock();
+            }
+            try {
+                return action.getAsBoolean();
+            } finally {
+                if (upper != lower) {
+                    upper.unlock();
+                }
+            }
+        } finally {
+            lower.unlock();
+        }
+    }
+
+    // Every stripe is taken once, instead of a lock/unlock round trip per id
+    public <T> T withAllLocked(long[] ids, Supplier<T> action) {
+        boolean[] stripes = new boolean[STRIPES];
+        for (long id : ids) {
+            stripes[stripe(id)] = true;
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            if (stripes[i]) {
+                locks[i].lock();
+            }
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                if (stripes[i]) {
+                    locks[i].unlock();
+                }
+            }
+        }
+    }
+
+    // Runs the action only when the id's stripe is free and not held by this thread, for work that may be
+    // skipped and must neither wait on another stripe nor touch an entity its own caller is in the middle of;
+    // reports whether it ran
+    boolean tryWithLocked(long id, Runnable action) {
+        ReentrantLock lock = locks[stripe(id)];
+        if (lock.isHeldByCurrentThread() || !lock.tryLock()) {
+            return false;
+        }
+        try {
+            action.run();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int stripe(long id) {
+        return Long.hashCode(id) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the most recently used films on heap and spills the rest, like sets included, to a local log.
+// Writes hold the film's stripe in the store, so the film they change is resident until they are done.
+// The number of likes of every film stays resident, so ranking films only fetches the ones it returns.
+@Slf4j
+public class TieredFilmStorage implements FilmStorage, AutoCloseable {
+
+    private final TieredStore<Film> films;
+    private final AtomicLong idSequence = new AtomicLong();
+    // Changed under the film's stripe together with its like set
+    private final Map<Long, Integer> likeCounts = new ConcurrentHashMap<>();
+
+    public TieredFilmStorage(Path directory, int hotCapacity, ObjectMapper mapper, FilmorateMetrics metrics) {
+        this(new TieredStore<>("film", hotCapacity, new EntityLog<>(directory, "films", mapper, Film.class), metrics));
+    }
+
+    TieredFilmStorage(TieredStore<Film> films) {
+        this.films = films;
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return films.snapshot();
+    }
+
+    @Override
+    public List<FilmSummary> getFilmSummaries(Set<FilmField> fields) {
+        List<Film> all = films.snapshot();
+        List<FilmSummary> summaries = new ArrayList<>(all.size());
+        for (Film film : all) {
+            summaries.add(FilmSummary.of(film, fields));
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<Film> getMostLikedFilms(int size) {
+        PriorityQueue<RankedId> worstFirst = new PriorityQueue<>(size + 1, RankedId.BEST_FIRST.reversed());
+        likeCounts.forEach((id, likes) -> {
+            RankedId ranked = new RankedId(id, likes);
+            if (worstFirst.size() < size) {
+                worstFirst.add(ranked);
+            } else if (RankedId.BEST_FIRST.compare(ranked, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(ranked);
+            }
+        });
+        List<RankedId> ranked = new ArrayList<>(worstFirst);
+        ranked.sort(RankedId.BEST_FIRST);
+        List<Film> mostLiked = new ArrayList<>(ranked.size());
+        for (RankedId film : ranked) {
+            // Read without promotion, like a full scan; a film deleted meanwhile is left out
+            Film found = films.peek(film.id());
+            if (found != null) {
+                mostLiked.add(found);
+            }
+        }
+        return mostLiked;
+    }
+
+    @Override
+    public Film getFilm(long id) {
+        Film film = films.get(id);
+        if (film == null) {
+            log.debug("Cannot get film: Film with id {} not found", id);
+            throw new NotFoundException("Film with id " + id + " not found");
+        }
+        return film;
+    }
+
+    @Override
+    public Optional<Film> findFilm(long id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        film.setId(getNextFilmId());
+        films.locked(film.getId(), () -> {
+            likeCounts.put(film.getId(), film.getLikes().size());
+            return films.put(film.getId(), film);
+        });
+        log.info("Film with id {} added", film.getId());
+        return film;
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        films.locked(film.getId(), () -> {
+            // Likes are owned by the like endpoints, an update must not drop or forge them
+            film.setLikes(getFilm(film.getId()).getLikes());
+            return films.put(film.getId(), film);
+        });
+
+        log.info("Film with id {} updated", film.getId());
+        return film;
+    }
+
+    @Override
+    public boolean addLike(long filmId, long userId) {
+        return films.locked(filmId, () -> {
+            if (!getFilm(filmId).getLikes().add(userId)) {
+                return false;
+            }
+            likeCounts.merge(filmId, 1, Integer::sum);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean removeLike(long filmId, long userId) {
+        return films.locked(filmId, () -> {
+            if (!getFilm(filmId).getLikes().remove(userId)) {
+                return false;
+            }
+            likeCounts.merge(filmId, -1, Integer::sum);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean replicateFilm(Film film) {
+        idSequence.accumulateAndGet(film.getId(), Math::max);
+        return films.locked(film.getId(), () -> {
+            film.setLikes(findFilm(film.getId()).map(Film::getLikes).orElse(null));
+            likeCounts.put(film.getId(), film.getLikes().size());
+            return films.put(film.getId(), film);
+        });
+    }
+
+    @Override
+    public Film deleteFilm(long id) {
+        Film film = films.locked(id, () -> {
+            likeCounts.remove(id);
+            return films.remove(id);
+        });
+        if (film == null) {
+            log.debug("Cannot delete film: Film with id {} not found", id);
+            throw new NotFoundException("Film with id " + id + " not found");
+        }
+        log.info("Film with id {} deleted", id);
+        return film;
+    }
+
+    @Override
+    public long getNextFilmId() {
+        return idSequence.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        films.close();
+    }
+
+    private record RankedId(long id, int likes) {
+
+        // Same order as the other storages: most liked first, then by id
+        static final Comparator<RankedId> BEST_FIRST = Comparator.comparingInt(RankedId::likes).reversed()
+                .thenComparingLong(RankedId::id);
+    }
+}
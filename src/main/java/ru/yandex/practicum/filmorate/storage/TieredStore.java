@@ -0,0 +1,223 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// Bounded hot tier in front of an EntityLog. An entity lives in one tier, and in both only while it moves: a read
+// that misses the hot tier promotes the record and then drops it from the log, and a CLOCK sweep appends hot
+// entities that were not read since its last pass to the log in their place. Hot hits take no lock. Faults, writes and evictions
+// hold the id's lock stripe, so disk I/O for one entity never blocks another; a caller holding stripes (see
+// locked) pins those entities, since the sweep skips them, and may briefly leave the tier over capacity.
+final class TieredStore<T> {
+
+    private final Map<Long, Slot<T>> hot = new ConcurrentHashMap<>();
+    private final EntityLog<T> cold;
+    private final int hotCapacity;
+    private final StripedLocks locks = new StripedLocks();
+    // One thread sweeps at a time; the others carry on instead of waiting for it
+    private final ReentrantLock sweep = new ReentrantLock();
+    private Iterator<Map.Entry<Long, Slot<T>>> hand;
+    private final Counter hits;
+    private final Counter faults;
+    private final Timer faultLatency;
+
+    TieredStore(String name, int hotCapacity, EntityLog<T> cold, FilmorateMetrics metrics) {
+        if (hotCapacity < 2) {
+            // Friend and like updates pin two entities at once
+            throw new IllegalArgumentException("Hot tier of " + name + " must hold at least 2 entities");
+        }
+        this.hotCapacity = hotCapacity;
+        this.cold = cold;
+        this.hits = metrics.cacheCounter(name + "-tier", "hit");
+        this.faults = metrics.cacheCounter(name + "-tier", "fault");
+        this.faultLatency = metrics.timer("filmorate.tier.fault", name);
+        metrics.gauge("filmorate.tier.entities", this, TieredStore::hotSize, "store", name, "tier", "hot");
+        metrics.gauge("filmorate.tier.entities", this, TieredStore::coldSize, "store", name, "tier", "cold");
+        metrics.gauge("filmorate.tier.bytes", this, TieredStore::coldBytes, "store", name, "tier", "cold");
+    }
+
+    // Returns the entity, faulting it in from the log when it is cold, or null when there is none
+    T get(long id) {
+        Slot<T> slot = hot.get(id);
+        if (slot != null) {
+            slot.referenced = true;
+            hits.increment();
+            return slot.entity;
+        }
+        T entity = locks.withLocked(id, () -> fault(id));
+        evict();
+        return entity;
+    }
+
+    // Returns the entity without promoting it, a cold one decoded as a detached copy, or null when there is none
+    T peek(long id) {
+        Slot<T> slot = hot.get(id);
+        if (slot != null) {
+            return slot.entity;
+        }
+        T entity = cold.read(id);
+        if (entity != null) {
+            return entity;
+        }
+        // Promoted between the two lookups
+        slot = hot.get(id);
+        return slot != null ? slot.entity : null;
+    }
+
+    // Stores the entity in the hot tier, replacing any version in either tier; returns whether it was new
+    boolean put(long id, T entity) {
+        boolean added = locks.withLocked(id, () -> {
+            if (hot.put(id, new Slot<>(entity)) != null) {
+                return false;
+            }
+            if (cold.contains(id)) {
+                cold.remove(id);
+                return false;
+            }
+            return true;
+        });
+        evict();
+        return added;
+    }
+
+    // Removes the entity from whichever tier holds it and returns it, or null when there is none
+    T remove(long id) {
+        return locks.withLocked(id, () -> {
+            Slot<T> slot = hot.remove(id);
+            return slot != null ? slot.entity : cold.take(id);
+        });
+    }
+
+    <R> R locked(long id, Supplier<R> action) {
+        return locks.withLocked(id, action);
+    }
+
+    boolean locked(long first, long second, BooleanSupplier action) {
+        return locks.withPairLocked(first, second, action);
+    }
+
+    <R> R locked(long[] ids, Supplier<R> action) {
+        return locks.withAllLocked(ids, action);
+    }
+
+    // Every entity, cold ones decoded as detached copies without promotion, so a full scan does not flush the
+    // hot tier. Weakly consistent like the in-memory storages: the cold ids are listed before and after the
+    // hot tier is scanned, so an entity moving between tiers meanwhile is still found in one of them.
+    List<T> snapshot() {
+        Set<Long> coldIds = new HashSet<>(cold.ids());
+        Map<Long, T> all = new HashMap<>(hot.size() + coldIds.size());
+        for (Map.Entry<Long, Slot<T>> entry : hot.entrySet()) {
+            all.put(entry.getKey(), entry.getValue().entity);
+        }
+        coldIds.addAll(cold.ids());
+        for (Long id : coldIds) {
+            if (!all.containsKey(id)) {
+                T entity = peek(id);
+                if (entity != null) {
+                    all.put(id, entity);
+                }
+            }
+        }
+        return new ArrayList<>(all.values());
+    }
+
+    int size() {
+        return hot.size() + cold.size();
+    }
+
+    void close() {
+        cold.close();
+    }
+
+    // Runs under the id's stripe
+    private T fault(long id) {
+        Slot<T> slot = hot.get(id);
+        if (slot != null) {
+            hits.increment();
+            return slot.entity;
+        }
+        long start = System.nanoTime();
+        T entity = cold.read(id);
+        if (entity == null) {
+            return null;
+        }
+        faults.increment();
+        // Promoted before it leaves the log, the mirror of eviction, so a lock-free reader always finds it
+        hot.put(id, new Slot<>(entity));
+        cold.remove(id);
+        faultLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return entity;
+    }
+
+    // CLOCK: a slot read since the hand last passed gets a second chance, an idle one is written to the log.
+    // Slots whose stripe is busy, or held by this thread, are passed over.
+    private void evict() {
+        if (hot.size() <= hotCapacity || !sweep.tryLock()) {
+            return;
+        }
+        try {
+            int budget = hot.size() * 2 + 1;
+            while (hot.size() > hotCapacity && budget-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = hot.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<Long, Slot<T>> candidate = hand.next();
+                long id = candidate.getKey();
+                Slot<T> slot = candidate.getValue();
+                if (slot.referenced) {
+                    slot.referenced = false;
+                    continue;
+                }
+                locks.tryWithLocked(id, () -> {
+                    if (hot.get(id) == slot) {
+                        // Written out before it leaves the hot tier, so a lock-free reader always finds it
+                        cold.append(id, slot.entity);
+                        hot.remove(id, slot);
+                    }
+                });
+            }
+        } finally {
+            sweep.unlock();
+        }
+    }
+
+    private double hotSize() {
+        return hot.size();
+    }
+
+    private double coldSize() {
+        return cold.size();
+    }
+
+    private double coldBytes() {
+        return cold.fileSize();
+    }
+
+    private static final class Slot<T> {
+
+        private final T entity;
+        // Set on every hit and on promotion, cleared by the sweep
+        private volatile boolean referenced = true;
+
+        private Slot(T entity) {
+            this.entity = entity;
+        }
+    }
+}
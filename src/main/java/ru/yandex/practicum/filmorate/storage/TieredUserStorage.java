@@ -0,0 +1,174 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the most recently used users on heap and spills the rest, friend sets included, to a local log.
+// Writes hold the stripes of every user they change in the store, which keeps those users resident until
+// they are done, so both ends of an edge are changed in the hot tier.
+@Slf4j
+public class TieredUserStorage implements UserStorage, AutoCloseable {
+
+    private final TieredStore<User> users;
+    private final AtomicLong idSequence = new AtomicLong();
+
+    public TieredUserStorage(Path directory, int hotCapacity, ObjectMapper mapper, FilmorateMetrics metrics) {
+        this(new TieredStore<>("user", hotCapacity, new EntityLog<>(directory, "users", mapper, User.class), metrics));
+    }
+
+    TieredUserStorage(TieredStore<User> users) {
+        this.users = users;
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return users.snapshot();
+    }
+
+    @Override
+    public List<UserSummary> getUserSummaries(Set<UserField> fields) {
+        List<User> all = users.snapshot();
+        List<UserSummary> summaries = new ArrayList<>(all.size());
+        for (User user : all) {
+            summaries.add(UserSummary.of(user, fields));
+        }
+        return summaries;
+    }
+
+    @Override
+    public User getUser(long id) {
+        User user = users.get(id);
+        if (user == null) {
+            log.debug("Cannot get user: User with id {} not found", id);
+            throw new NotFoundException("User with id " + id + " not found");
+        }
+        return user;
+    }
+
+    @Override
+    public Optional<User> findUser(long id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public User addUser(User user) {
+        user.setId(getNextUserId());
+        users.put(user.getId(), user);
+        log.info("User with id {} added", user.getId());
+        return user;
+    }
+
+    @Override
+    public User updateUser(User user) {
+        users.locked(user.getId(), () -> {
+            // Friendships are owned by the friend endpoints, an update must not drop or forge edges
+            user.setFriends(getUser(user.getId()).getFriends());
+            return users.put(user.getId(), user);
+        });
+
+        log.info("User with id {} updated", user.getId());
+        return user;
+    }
+
+    @Override
+    public boolean replicateUser(User user) {
+        idSequence.accumulateAndGet(user.getId(), Math::max);
+        return users.locked(user.getId(), () -> {
+            user.setFriends(findUser(user.getId()).map(User::getFriends).orElse(null));
+            return users.put(user.getId(), user);
+        });
+    }
+
+    @Override
+    public User deleteUser(long id) {
+        User user = users.remove(id);
+        if (user == null) {
+            log.debug("Cannot delete user: User with id {} not found", id);
+            throw new NotFoundException("User with id " + id + " not found");
+        }
+        log.info("User with id {} deleted", id);
+        return user;
+    }
+
+    @Override
+    public boolean addFriend(long userId, long friendId) {
+        return users.locked(userId, friendId, () -> {
+            getUser(friendId);
+            if (!getUser(userId).getFriends().add(friendId)) {
+                return false;
+            }
+            getUser(friendId).getFriends().add(userId);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean removeFriend(long userId, long friendId) {
+        return users.locked(userId, friendId, () -> {
+            getUser(friendId);
+            if (!getUser(userId).getFriends().remove(friendId)) {
+                return false;
+            }
+            getUser(friendId).getFriends().remove(userId);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean detachFriend(long userId, long friendId) {
+        return users.locked(userId, () -> {
+            User user = users.get(userId);
+            return user != null && user.getFriends().remove(friendId);
+        });
+    }
+
+    @Override
+    public boolean[] updateFriends(long userId, List<FriendChange> changes) {
+        long[] ids = new long[changes.size() + 1];
+        ids[0] = userId;
+        for (int i = 0; i < changes.size(); i++) {
+            ids[i + 1] = changes.get(i).friendId();
+        }
+        return users.locked(ids, () -> {
+            getUser(userId);
+            boolean[] changed = new boolean[changes.size()];
+            for (int i = 0; i < changes.size(); i++) {
+                FriendChange change = changes.get(i);
+                long friendId = change.friendId();
+                if (friendId == userId || users.get(friendId) == null) {
+                    continue;
+                }
+                if (change.add()) {
+                    changed[i] = getUser(userId).getFriends().add(friendId);
+                    getUser(friendId).getFriends().add(userId);
+                } else {
+                    changed[i] = getUser(userId).getFriends().remove(friendId);
+                    getUser(friendId).getFriends().remove(userId);
+                }
+            }
+            return changed;
+        });
+    }
+
+    @Override
+    public long getNextUserId() {
+        return idSequence.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        users.close();
+    }
+}
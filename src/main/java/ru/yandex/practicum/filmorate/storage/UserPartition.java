@@ -0,0 +1,40 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// One shard of the users as PartitionedUserStorage sees it. Friendships are stored as half-edges: a
+// partition only links or unlinks the friend id in its own user's set, and the coordinator writes both
+// halves under its locks. Users returned by a remote partition are detached copies.
+public interface UserPartition {
+
+    List<User> getUsers();
+
+    List<UserSummary> getUserSummaries(Set<UserField> fields);
+
+    Optional<User> findUser(long id);
+
+    // Stores a user whose id the coordinator has already assigned; an id the partition already holds is rejected
+    User insertUser(User user);
+
+    // The highest id the partition has held, so a restarted coordinator resumes its sequence past it
+    long getMaxUserId();
+
+    User updateUser(User user);
+
+    boolean replicateUser(User user);
+
+    User deleteUser(long id);
+
+    // Tolerates a user that is already gone, unlike unlinkFriend
+    boolean detachFriend(long userId, long friendId);
+
+    boolean linkFriend(long userId, long friendId);
+
+    boolean unlinkFriend(long userId, long friendId);
+}
@@ -2,20 +2,50 @@ package ru.yandex.practicum.filmorate.storage;
 
 
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.model.UserField;
+import ru.yandex.practicum.filmorate.model.UserSummary;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 
 public interface UserStorage {
 
     List<User> getUsers();
 
+    // Projects every user without serializing its friend set; only its size is read
+    List<UserSummary> getUserSummaries(Set<UserField> fields);
+
     User getUser(long id);
 
+    Optional<User> findUser(long id);
+
     User addUser(User user);
 
     User updateUser(User user);
 
+    // Stores a user replicated from a leader under the id it already carries, replacing any previous
+    // version but keeping the friends it has here, which are replicated one by one; returns whether the
+    // user was new
+    boolean replicateUser(User user);
+
+    // Removes the user and returns it, friends included. The friends keep their half of each edge until
+    // detachFriend is called for them.
+    User deleteUser(long id);
+
+    boolean addFriend(long userId, long friendId);
+
+    boolean removeFriend(long userId, long friendId);
+
+    // Drops friendId from the friends of userId only, for a friend that was deleted; reports whether the
+    // user still existed and had that friend
+    boolean detachFriend(long userId, long friendId);
+
+    // Applies the changes in order as one critical section and reports, per change, whether an edge
+    // was actually added or removed. Friends are expected to exist; missing ones are left unchanged.
+    boolean[] updateFriends(long userId, List<FriendChange> changes);
+
     long getNextUserId();
 
 }
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class FilmValidator {
+
+    public static final int MAX_DESCRIPTION_LENGTH = 200;
+    public static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
+
+    public List<String> validate(Film film) {
+        List<String> violations = List.of();
+
+        if (Violations.isBlank(film.getName())) {
+            violations = Violations.add(violations, "Film name must not be blank");
+        }
+
+        if (film.getDescription() != null && film.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            violations = Violations.add(violations, "Film description must be less than 200 symbols");
+        }
+
+        if (film.getDuration() == null) {
+            violations = Violations.add(violations, "Film duration must not be null");
+        } else if (film.getDuration().getSeconds() <= 0) {
+            violations = Violations.add(violations, "Film duration must be positive");
+        }
+
+        if (film.getReleaseDate() == null) {
+            violations = Violations.add(violations, "Film release date must not be null");
+        } else if (film.getReleaseDate().isBefore(MIN_RELEASE_DATE)) {
+            violations = Violations.add(violations, "Film release date must not be before 1895-12-28");
+        }
+
+        return violations;
+    }
+
+
+}
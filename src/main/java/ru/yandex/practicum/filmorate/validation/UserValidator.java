@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Pattern;
+
+@Component
+public class UserValidator {
+
+    // Same shape as Hibernate Validator's @Email: an atom-based local part and dot-separated domain labels
+    private static final Pattern EMAIL = Pattern.compile(
+            "[a-zA-Z0-9!#$%&'*+/=?^_`{|}~-]+(\\.[a-zA-Z0-9!#$%&'*+/=?^_`{|}~-]+)*"
+                    + "@[a-zA-Z0-9]([a-zA-Z0-9-]*[a-zA-Z0-9])?(\\.[a-zA-Z0-9]([a-zA-Z0-9-]*[a-zA-Z0-9])?)*");
+
+    private final Clock clock;
+    private volatile CachedDate today = new CachedDate(LocalDate.MIN, 0, 0);
+
+    public UserValidator() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public UserValidator(Clock clock) {
+        this.clock = clock;
+    }
+
+    public List<String> validate(User user) {
+        List<String> violations = List.of();
+
+        if (Violations.isBlank(user.getLogin())) {
+            violations = Violations.add(violations, "User login must not be blank");
+        }
+
+        String email = user.getEmail();
+        if (email != null && !email.isEmpty() && !EMAIL.matcher(email).matches()) {
+            violations = Violations.add(violations, "User email must be a well-formed email address");
+        }
+
+        if (user.getBirthday() == null) {
+            violations = Violations.add(violations, "User birthday must not be null");
+        } else if (user.getBirthday().isAfter(today())) {
+            violations = Violations.add(violations, "User birthday must be before current date");
+        }
+
+        return violations;
+    }
+
+    // LocalDate.now() is only re-read once the cached date has expired at the next midnight
+    private LocalDate today() {
+        long now = clock.millis();
+        CachedDate cached = today;
+        if (now < cached.validFrom() || now >= cached.validUntil()) {
+            LocalDate date = LocalDate.now(clock);
+            cached = new CachedDate(date,
+                    date.atStartOfDay(clock.getZone()).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli());
+            today = cached;
+        }
+        return cached.date();
+    }
+
+    private record CachedDate(LocalDate date, long validFrom, long validUntil) {
+    }
+
+
+}
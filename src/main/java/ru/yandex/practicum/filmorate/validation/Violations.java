@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class Violations {
+
+    private Violations() {
+    }
+
+    // The valid path returns the shared empty list; a list is only allocated for the first violation
+    static List<String> add(List<String> violations, String violation) {
+        List<String> result = violations.isEmpty() ? new ArrayList<>(4) : violations;
+        result.add(violation);
+        return result;
+    }
+
+    static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.adapter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class DeltaVarintCodecTest {
+
+    @Test
+    void roundTripSortsIds() {
+        assertArrayEquals(new long[]{1, 3, 1_000_000},
+                DeltaVarintCodec.decode(DeltaVarintCodec.encode(List.of(3L, 1_000_000L, 1L))));
+        assertArrayEquals(new long[0], DeltaVarintCodec.decode(DeltaVarintCodec.encode(List.of())));
+    }
+
+    @Test
+    void encodesIdsAddedWhileTheSetIsRead() {
+        // Живое множество, в которое во время сериализации добавили лайк: size() отстаёт от итератора
+        List<Long> ids = List.of(5L, 2L, 9L);
+        AbstractCollection<Long> growing = new AbstractCollection<>() {
+            @Override
+            public Iterator<Long> iterator() {
+                return ids.iterator();
+            }
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+
+        assertArrayEquals(new long[]{2, 5, 9}, DeltaVarintCodec.decode(DeltaVarintCodec.encode(growing)));
+    }
+}
@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Маршруты из application.properties с урезанными лимитами: два запроса каталога на клиента и одна запись за раз
+@SpringBootTest(properties = {
+        "filmorate.admission.client-header=X-Client-Id",
+        "filmorate.admission.routes.catalog.rate=0.5",
+        "filmorate.admission.routes.catalog.burst=2",
+        "filmorate.admission.routes.writes.min-concurrency=1",
+        "filmorate.admission.routes.writes.max-concurrency=1"})
+@AutoConfigureMockMvc
+class AdmissionControlFilterTest {
+
+    private static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter;
+
+    @Test
+    void exhaustedBucketAnswersTooManyRequestsWithRetryAfter() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/films").header(CLIENT_HEADER, "greedy"))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/films").header(CLIENT_HEADER, "greedy"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("Too many requests."));
+
+        // Бакеты у каждого клиента свои
+        mockMvc.perform(get("/films").header(CLIENT_HEADER, "polite"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void limitsApplyPerRouteAndOnlyToMatchingRequests() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/films/popular").header(CLIENT_HEADER, "reader"))
+                    .andExpect(status().isOk());
+        }
+        // /users входит в тот же маршрут catalog и делит с /films/popular один бакет
+        mockMvc.perform(get("/users").header(CLIENT_HEADER, "reader"))
+                .andExpect(status().isTooManyRequests());
+
+        // GET /films/{id} не описан ни в одном маршруте, запись попадает в маршрут writes
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get("/films/1").header(CLIENT_HEADER, "reader"))
+                    .andExpect(status().isNotFound());
+        }
+        mockMvc.perform(put("/films/1/like/1").header(CLIENT_HEADER, "reader"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void requestsBeyondTheConcurrencyLimitAreShed() throws Exception {
+        AdmissionControlFilter filter = admissionControlFilter.getFilter();
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+
+        // Вложенный запрос приходит, пока внешний ещё занимает единственный слот маршрута writes
+        filter.doFilter(request("PUT", "/films/1/like/1"), new MockHttpServletResponse(), (outer, outerResponse) ->
+                filter.doFilter(request("PUT", "/films/1/like/2"), shed, new MockFilterChain()));
+
+        assertEquals(503, shed.getStatus());
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(request("PUT", "/films/1/like/3"), admitted, new MockFilterChain());
+        assertEquals(200, admitted.getStatus());
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.addHeader(CLIENT_HEADER, "writer");
+        return request;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tokenBucketAllowsBurstThenSustainedRate() {
+        TokenBucket bucket = new TokenBucket(10, 5, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(0));
+        }
+        assertFalse(bucket.tryAcquire(0));
+        long wait = bucket.nanosUntilToken(0);
+        assertTrue(Math.abs(wait - SECOND / 10) <= 1, "one token every 100 ms, got " + wait);
+
+        long later = SECOND / 10 + 1_000;
+        assertTrue(bucket.tryAcquire(later));
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    void concurrencyLimitShrinksOnSlowResponsesAndRecovers() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(TimeUnit.MILLISECONDS.toNanos(100), 2, 10);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        for (int i = 0; i < 10; i++) {
+            limit.release(SECOND);
+        }
+        assertEquals(3, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        for (int i = 0; i < 3; i++) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(10, limit.getLimit());
+    }
+}
@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.sketch.SpaceSaving;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Compares exact like bookkeeping (per-film user sets, full sort for top-K) with the Space-Saving sketch.
+// Accuracy of the sketch against the exact counts is printed once per capacity during setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApproximatePopularityBenchmark {
+
+    private static final int FILMS = 100_000;
+    private static final int USERS = 1_000_000;
+    private static final int EVENTS = 1 << 20;
+    private static final int TOP = 10;
+
+    @Param({"100", "1000", "10000"})
+    public int capacity;
+
+    private long[] filmIds;
+    private long[] userIds;
+    private Map<Long, Set<Long>> exact;
+    private SpaceSaving sketch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filmIds = new ZipfDistribution(FILMS, 1.0, 42).sample(EVENTS);
+        userIds = new ZipfDistribution(USERS, 0.8, 7).sample(EVENTS);
+        exact = new HashMap<>();
+        sketch = new SpaceSaving(capacity, 10);
+        for (int i = 0; i < EVENTS; i++) {
+            exact.computeIfAbsent(filmIds[i], id -> new HashSet<>()).add(userIds[i]);
+            sketch.add(filmIds[i], userIds[i]);
+        }
+        reportAccuracy();
+    }
+
+    @Benchmark
+    public boolean exactLike() {
+        int i = ThreadLocalRandom.current().nextInt(EVENTS);
+        return exact.computeIfAbsent(filmIds[i], id -> new HashSet<>()).add(userIds[i]);
+    }
+
+    @Benchmark
+    public void approximateLike() {
+        int i = ThreadLocalRandom.current().nextInt(EVENTS);
+        sketch.add(filmIds[i], userIds[i]);
+    }
+
+    @Benchmark
+    public List<Long> exactTop() {
+        return exact.entrySet()
+                .stream()
+                .sorted((a, b) -> b.getValue().size() - a.getValue().size())
+                .limit(TOP)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Benchmark
+    public List<SpaceSaving.HeavyHitter> approximateTop() {
+        return sketch.top(TOP);
+    }
+
+    private void reportAccuracy() {
+        Set<Long> exactTop = new HashSet<>(exactTop());
+        List<SpaceSaving.HeavyHitter> approximateTop = approximateTop();
+        long hits = approximateTop.stream().filter(hitter -> exactTop.contains(hitter.item())).count();
+        double maxCountError = 0;
+        double maxDistinctError = 0;
+        for (SpaceSaving.HeavyHitter hitter : approximateTop) {
+            long distinct = exact.getOrDefault(hitter.item(), Set.of()).size();
+            if (distinct > 0) {
+                maxDistinctError = Math.max(maxDistinctError,
+                        Math.abs(hitter.distinctMembers() - distinct) / (double) distinct);
+            }
+        }
+        long[] counts = new long[FILMS + 1];
+        for (long filmId : filmIds) {
+            counts[(int) filmId]++;
+        }
+        for (SpaceSaving.HeavyHitter hitter : approximateTop) {
+            long count = counts[(int) hitter.item()];
+            maxCountError = Math.max(maxCountError, (hitter.count() - count) / (double) count);
+        }
+        System.out.printf("capacity=%d: top-%d recall %.2f, max count overestimate %.4f (bound %d of %d),"
+                        + " max unique likers error %.4f (standard error %.4f)%n",
+                capacity, TOP, hits / (double) TOP, maxCountError, sketch.getMaxError(), sketch.getTotal(),
+                maxDistinctError, sketch.getMembersStandardError());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ApproximatePopularityBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
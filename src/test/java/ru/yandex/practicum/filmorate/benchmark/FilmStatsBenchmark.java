@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmStats;
+import ru.yandex.practicum.filmorate.service.FilmStatistics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Catalog statistics over a 1M-film catalog with power-law like counts, on fork-join pools of
+// growing parallelism. The boxed single-threaded stream is the shape of the code the endpoint replaces.
+// Speedup is the ratio of parallelism=1 to the other scores; expect it to flatten past the physical cores.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FilmStatsBenchmark {
+
+    private static final int FILMS = 1_000_000;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    private List<Film> films;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long[] likeRanks = new ZipfDistribution(10_000, 1.0, 42).sample(FILMS);
+        SplittableRandom random = new SplittableRandom(7);
+        films = new ArrayList<>(FILMS);
+        for (int i = 0; i < FILMS; i++) {
+            Film film = new Film();
+            film.setId(i + 1);
+            film.setReleaseDate(LocalDate.of(1900 + random.nextInt(125), 1, 1).plusDays(random.nextInt(365)));
+            // About 5M likes in total: most films have none, one in ten has the maximum of 32
+            long likes = 32 / likeRanks[i];
+            for (long user = 0; user < likes; user++) {
+                film.getLikes().add(user);
+            }
+            films.add(film);
+        }
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public FilmStats forkJoin() {
+        return FilmStatistics.compute(films, pool);
+    }
+
+    @Benchmark
+    public Map<Integer, Long> boxedSequential() {
+        long totalLikes = films.stream().mapToLong(film -> film.getLikes().size()).sum();
+        Map<Integer, Long> perYear = films.stream()
+                .collect(Collectors.groupingBy(film -> film.getReleaseDate().getYear(), Collectors.counting()));
+        perYear.put(-1, totalLikes);
+        return perYear;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FilmStatsBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Request throughput of the running application over HTTP with traffic logging off (Logbook filter not
+// registered), sampled (the default 10%) and on for every request. Both endpoints are outside the GET
+// exclusions, so "on" logs each request and response body; log events go through the real async console sink.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HttpLoggingBenchmark {
+
+    private static final int FILMS = 1_000;
+
+    @Param({"off", "sampled", "on"})
+    public String logging;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private byte[] filmBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(FilmorateApplication.class).run(
+                "--server.port=0",
+                "--filmorate.admission.enabled=false",
+                "--logbook.filter.enabled=" + !"off".equals(logging),
+                "--filmorate.logging.http.sample-rate=" + ("on".equals(logging) ? "1.0" : "0.1"));
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newHttpClient();
+        FilmService filmService = context.getBean(FilmService.class);
+        for (int i = 0; i < FILMS; i++) {
+            filmService.addFilm(newFilm(i));
+        }
+        filmBody = context.getBean(ObjectMapper.class).writeValueAsBytes(newFilm(FILMS));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getFilm() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, FILMS + 1);
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/films/" + id)).GET().build());
+    }
+
+    @Benchmark
+    public int addFilm() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/films"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(filmBody))
+                .build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private static Film newFilm(int i) {
+        Film film = new Film();
+        film.setName("Film " + i);
+        film.setDescription("Benchmark film number " + i);
+        film.setReleaseDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1 + i % 28));
+        film.setDuration(Duration.ofMinutes(80 + i % 100));
+        return film;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(HttpLoggingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
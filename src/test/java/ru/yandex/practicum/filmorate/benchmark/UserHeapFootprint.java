@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.SortedIdSet;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+// Retained heap of 1M users with the text fields held as Strings (the former layout of User, copied
+// below) and as compact UTF-8 bytes. Names follow a power law over a pool of first and last names, a
+// fifth of the users have no name and get the login as the service would, logins and emails are unique.
+// Run with a fixed heap, e.g. -Xms4g -Xmx4g, so that GC noise stays small next to the measured sizes.
+public class UserHeapFootprint {
+
+    private static final int USERS = 1_000_000;
+    private static final String[] FIRST_NAMES = {
+            "Alexander", "Maria", "Ivan", "Anna", "Dmitry", "Elena", "Sergey", "Olga", "Andrey", "Natalia",
+            "Алексей", "Мария", "Иван", "Анна", "Дмитрий", "Елена", "Сергей", "Ольга", "Михаил", "Татьяна"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Ivanov", "Petrova", "Johnson", "Sidorov", "Kuznetsova", "Brown", "Popov", "Volkova",
+            "Иванов", "Петрова", "Смирнов", "Кузнецова", "Попов", "Васильева", "Соколов", "Новикова"};
+    private static final String[] DOMAINS = {"example.com", "mail.ru", "yandex.ru", "gmail.com"};
+
+    public static void main(String[] args) {
+        long strings = retained(UserHeapFootprint::stringUser);
+        long compact = retained(UserHeapFootprint::compactUser);
+        System.out.printf("String fields:  %,d bytes retained, %d bytes per user%n", strings, strings / USERS);
+        System.out.printf("Compact fields: %,d bytes retained, %d bytes per user%n", compact, compact / USERS);
+        System.out.printf("Saved %.1f%%%n", 100.0 * (strings - compact) / strings);
+    }
+
+    private static long retained(Function<Sample, Object> factory) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        SplittableRandom random = new SplittableRandom(42);
+        ZipfDistribution firstNames = new ZipfDistribution(FIRST_NAMES.length, 1.0, 1);
+        ZipfDistribution lastNames = new ZipfDistribution(LAST_NAMES.length, 1.0, 2);
+        settle();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        List<Object> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            String login = "user" + i + "_" + Integer.toString(random.nextInt(1 << 20), 36);
+            String name = random.nextInt(5) == 0 ? null
+                    : FIRST_NAMES[(int) firstNames.next() - 1] + " " + LAST_NAMES[(int) lastNames.next() - 1];
+            // Fresh strings per user, as if each came from its own request body
+            users.add(factory.apply(new Sample(i + 1, new String(login), name == null ? null : new String(name),
+                    login + "@" + DOMAINS[random.nextInt(DOMAINS.length)])));
+        }
+        settle();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        if (users.size() != USERS) {
+            throw new IllegalStateException();
+        }
+        return after - before;
+    }
+
+    private static Object stringUser(Sample sample) {
+        StringUser user = new StringUser();
+        user.id = sample.id();
+        user.login = sample.login();
+        user.email = sample.email();
+        user.name = sample.name() == null ? sample.login() : sample.name();
+        user.birthday = LocalDate.of(1990, 1, 1);
+        return user;
+    }
+
+    private static Object compactUser(Sample sample) {
+        User user = new User();
+        user.setId(sample.id());
+        user.setLogin(sample.login());
+        user.setEmail(sample.email());
+        user.setName(sample.name() == null ? sample.login() : sample.name());
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static void settle() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Sample(long id, String login, String name, String email) {
+    }
+
+    private static final class StringUser {
+        private long id;
+        private String name;
+        private String email;
+        private String login;
+        private LocalDate birthday;
+        private Set<Long> friends = new SortedIdSet();
+    }
+}
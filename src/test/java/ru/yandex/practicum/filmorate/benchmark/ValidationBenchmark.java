@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.FilmValidator;
+import ru.yandex.practicum.filmorate.validation.UserValidator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bean Validation followed by the former service checks versus the single-pass validators. The models no longer
+// carry the constraints, so the Bean Validation side validates annotated views holding the former ones.
+// Run through main to get allocation rates from the GC profiler as well.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private final FilmValidator filmValidator = new FilmValidator();
+    private final UserValidator userValidator = new UserValidator();
+    private Film film;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+
+        film = new Film();
+        film.setName("Test Film");
+        film.setDescription("This is a test film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+
+        user = new User();
+        user.setName("Test User");
+        user.setLogin("testLogin");
+        user.setEmail("test@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean filmBeanValidation() {
+        Set<ConstraintViolation<AnnotatedFilm>> violations = beanValidator.validate(new AnnotatedFilm(film));
+        return violations.isEmpty()
+                && film.getDescription().length() <= 200
+                && film.getDuration().getSeconds() > 0
+                && !film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28));
+    }
+
+    @Benchmark
+    public List<String> filmCompiledValidation() {
+        return filmValidator.validate(film);
+    }
+
+    @Benchmark
+    public boolean userBeanValidation() {
+        Set<ConstraintViolation<AnnotatedUser>> violations = beanValidator.validate(new AnnotatedUser(user));
+        return violations.isEmpty() && !user.getBirthday().isAfter(LocalDate.now());
+    }
+
+    @Benchmark
+    public List<String> userCompiledValidation() {
+        return userValidator.validate(user);
+    }
+
+    private record AnnotatedFilm(@NotBlank String name, @NotNull LocalDate releaseDate, @NotNull Duration duration) {
+
+        private AnnotatedFilm(Film film) {
+            this(film.getName(), film.getReleaseDate(), film.getDuration());
+        }
+    }
+
+    private record AnnotatedUser(@Email String email, @NotBlank String login, @NotNull LocalDate birthday) {
+
+        private AnnotatedUser(User user) {
+            this(user.getEmail(), user.getLogin(), user.getBirthday());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
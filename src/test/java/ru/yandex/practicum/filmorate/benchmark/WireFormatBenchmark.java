@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.config.WireFormatConfiguration;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Encodes and decodes a page of films with popularity-skewed like sets as JSON and as Smile with
+// delta-varint id sets. Payload sizes are printed once per format during setup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final int FILMS = 1_000;
+    private static final int USERS = 100_000;
+    private static final TypeReference<List<Film>> FILM_LIST = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<Film> films;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = "smile".equals(format)
+                ? WireFormatConfiguration.smileObjectMapper(Jackson2ObjectMapperBuilder.json())
+                : Jackson2ObjectMapperBuilder.json().build();
+        films = createFilms();
+        payload = mapper.writeValueAsBytes(films);
+        long likes = films.stream().mapToLong(film -> film.getLikes().size()).sum();
+        System.out.printf("%s: %d films, %d likes, %d bytes (%.2f bytes per like)%n",
+                format, FILMS, likes, payload.length, payload.length / (double) likes);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public List<Film> decode() throws IOException {
+        return mapper.readValue(payload, FILM_LIST);
+    }
+
+    private static List<Film> createFilms() {
+        ZipfDistribution likesPerFilm = new ZipfDistribution(USERS / 10, 1.0, 42);
+        Random random = new Random(7);
+        List<Film> films = new ArrayList<>(FILMS);
+        for (int i = 1; i <= FILMS; i++) {
+            Film film = new Film();
+            film.setId(i);
+            film.setName("Film " + i);
+            film.setDescription("Benchmark film number " + i);
+            film.setReleaseDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1 + i % 28));
+            film.setDuration(Duration.ofMinutes(80 + i % 100));
+            long likes = likesPerFilm.next();
+            for (long j = 0; j < likes; j++) {
+                film.getLikes().add(1L + random.nextInt(USERS));
+            }
+            films.add(film);
+        }
+        return films;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Power-law sampler over ids 1..size: id k is drawn with probability proportional to 1 / k^exponent.
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+    private final Random random;
+
+    public ZipfDistribution(int size, double exponent, long seed) {
+        this.cumulative = new double[size];
+        this.random = new Random(seed);
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    public long next() {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return (index >= 0 ? index : -index - 1) + 1L;
+    }
+
+    public long[] sample(int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = next();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class EventControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void mutationsAreReadableFromOffset() throws Exception {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("This is a test film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+
+        User user = new User();
+        user.setLogin("testUser");
+        user.setEmail("test@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+
+        mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(film)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(user)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films/1/like/1"))
+                .andExpect(status().isOk());
+
+        getEvents(get("/events"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(3))
+                .andExpect(jsonPath("$.events[0].type").value("FILM_ADDED"))
+                .andExpect(jsonPath("$.events[0].film.name").value("Test Film"))
+                // Событие хранит копию фильма на момент записи, лайки идут отдельными событиями
+                .andExpect(jsonPath("$.events[0].film.likes.length()").value(0))
+                .andExpect(jsonPath("$.events[2].type").value("LIKE_ADDED"))
+                .andExpect(jsonPath("$.events[2].entityId").value(1))
+                .andExpect(jsonPath("$.events[2].relatedId").value(1))
+                .andExpect(jsonPath("$.nextOffset").value(3));
+
+        getEvents(get("/events").param("offset", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].offset").value(2));
+
+        getEvents(get("/events").param("offset", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(0))
+                .andExpect(jsonPath("$.nextOffset").value(3));
+    }
+
+    // Длинный опрос отвечает асинхронно, поэтому ответ забирается повторной диспетчеризацией
+    private ResultActions getEvents(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
@@ -1,14 +1,21 @@
 package ru.yandex.practicum.filmorate.controller;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.config.FeedOffsetFilter;
+import ru.yandex.practicum.filmorate.config.IdempotencyFilter;
+import ru.yandex.practicum.filmorate.config.WireFormatConfiguration;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
@@ -16,16 +23,23 @@ import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.io.ByteArrayInputStream;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class FilmControllerTest {
 
     @Autowired
@@ -74,6 +88,22 @@ class FilmControllerTest {
                 .andExpect(jsonPath("$.duration").value(120));
     }
 
+    @Test
+    void testWriteResponsesCarryFeedOffset() throws Exception {
+        String offset = mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validFilm)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(FeedOffsetFilter.FEED_OFFSET_HEADER))
+                .andReturn().getResponse().getHeader(FeedOffsetFilter.FEED_OFFSET_HEADER);
+
+        // Токен покрывает событие о добавлении, поэтому он строго больше нуля
+        assertTrue(Long.parseLong(offset) > 0);
+
+        mockMvc.perform(get("/films"))
+                .andExpect(header().doesNotExist(FeedOffsetFilter.FEED_OFFSET_HEADER));
+    }
+
     @Test
     void testUpdateFilm() throws Exception {
         // Сначала добавляем фильм
@@ -108,6 +138,18 @@ class FilmControllerTest {
 
     }
 
+    @Test
+    void testDeleteFilm() throws Exception {
+        long filmId = filmService.addFilm(validFilm).getId();
+
+        mockMvc.perform(delete("/films/{id}", filmId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/{id}", filmId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/films/{id}", filmId))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetFilms() throws Exception {
         // Добавляем фильм
@@ -154,7 +196,10 @@ class FilmControllerTest {
     @Test
     void testAddLikeWithInvalidFilmId() throws Exception {
         mockMvc.perform(put("/films/999/like/1"))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Could not find entity."))
+                .andExpect(jsonPath("$.description").value("Film with id 999 not found"));
     }
 
     @Test
@@ -180,6 +225,187 @@ class FilmControllerTest {
 
     }
 
+    @Test
+    void testLikeBatchReportsPerItemOutcome() throws Exception {
+        long userId = userStorage.addUser(validUser).getId();
+        long filmId = filmStorage.addFilm(validFilm).getId();
+        String batch = """
+                [{"filmId":%d,"userId":%d,"action":"ADD"},
+                 {"filmId":%d,"userId":%d,"action":"ADD"},
+                 {"filmId":999999,"userId":%d,"action":"ADD"},
+                 {"filmId":%d,"userId":%d,"action":"REMOVE"}]
+                """.formatted(filmId, userId, filmId, userId, userId, filmId, userId);
+
+        mockMvc.perform(post("/films/likes:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[1].status").value("UNCHANGED"))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[3].index").value(3))
+                .andExpect(jsonPath("$[3].status").value("APPLIED"));
+    }
+
+    @Test
+    void testRepeatedLikeIsIdempotent() throws Exception {
+        long userId = userStorage.addUser(validUser).getId();
+        long filmId = filmStorage.addFilm(validFilm).getId();
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId))
+                .andExpect(status().isOk());
+
+        assertEquals(Set.of(userId), filmStorage.getFilm(filmId).getLikes());
+    }
+
+    @Test
+    void testIdempotencyKeyReplaysRecordedResponse() throws Exception {
+        String key = "create-film-" + System.nanoTime();
+        String body = objectMapper.writeValueAsString(validFilm);
+
+        String first = mockMvc.perform(post("/films")
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        int films = filmStorage.getFilms().size();
+
+        String retried = mockMvc.perform(post("/films")
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retried);
+        assertEquals(films, filmStorage.getFilms().size());
+
+        // Тот же ключ с другим телом — ошибка клиента, а не повтор чужого ответа
+        validFilm.setName("Another Film");
+        mockMvc.perform(post("/films")
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validFilm)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void testIdempotencyKeysAreScopedPerClientAndBodiesAreCapped() throws Exception {
+        String key = "shared-key";
+        String body = objectMapper.writeValueAsString(validFilm);
+
+        mockMvc.perform(post("/films")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.1");
+                            return request;
+                        })
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        // Другой клиент с тем же ключом выполняет свой запрос, а не получает чужой ответ
+        mockMvc.perform(post("/films")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.2");
+                            return request;
+                        })
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, filmStorage.getFilms().size());
+
+        mockMvc.perform(post("/films")
+                        .header(IdempotencyFilter.KEY_HEADER, "too-large")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new byte[65_537]))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.error").value("Request too large."));
+    }
+
+    @Test
+    void testSmileRoundTrip() throws Exception {
+        ObjectMapper smileMapper = WireFormatConfiguration.smileObjectMapper(Jackson2ObjectMapperBuilder.json());
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        // Разреженные id лайков переживают кодирование в Smile
+        validFilm.setLikes(Set.of(3L, 1L, 1_000_000L));
+        assertEquals(validFilm.getLikes(),
+                smileMapper.readValue(smileMapper.writeValueAsBytes(validFilm), Film.class).getLikes());
+
+        // Лайки из тела запроса не сохраняются: их ставят только через /like
+        byte[] created = mockMvc.perform(post("/films")
+                        .contentType(smile)
+                        .accept(smile)
+                        .content(smileMapper.writeValueAsBytes(validFilm)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+        Film film = smileMapper.readValue(created, Film.class);
+        assertEquals(validFilm.getDuration(), film.getDuration());
+        assertTrue(film.getLikes().isEmpty());
+
+        long userId = userStorage.addUser(validUser).getId();
+        filmService.addLike(film.getId(), userId);
+        byte[] fetched = mockMvc.perform(get("/films/{id}", film.getId()).accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(Set.of(userId), smileMapper.readValue(fetched, Film.class).getLikes());
+        mockMvc.perform(get("/films/{id}", film.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.likes.length()").value(1));
+    }
+
+    @Test
+    void testGetFilmServesFreshBytesAfterMutation() throws Exception {
+        long userId = userStorage.addUser(validUser).getId();
+        long filmId = filmService.addFilm(validFilm).getId();
+
+        mockMvc.perform(get("/films/{id}", filmId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes.length()").value(0));
+
+        mockMvc.perform(put("/films/{id}/like/{userId}", filmId, userId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/{id}", filmId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes.length()").value(1));
+
+        for (int i = 1; i < 300; i++) {
+            User user = new User();
+            user.setLogin("liker" + i);
+            user.setEmail("liker" + i + "@example.com");
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            filmService.addLike(filmId, userStorage.addUser(user).getId());
+        }
+        // Обновление без лайков в теле не сбрасывает уже поставленные
+        validFilm.setId(filmId);
+        validFilm.setName("Updated Film");
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validFilm)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.likes.length()").value(300));
+
+        byte[] compressed = mockMvc.perform(get("/films/{id}", filmId)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(300, objectMapper.readValue(in.readAllBytes(), Film.class).getLikes().size());
+        }
+    }
+
     @Test
     void testRemoveLikeWithNoLike() throws Exception {
         userStorage.addUser(validUser);
@@ -209,24 +435,115 @@ class FilmControllerTest {
 
     @Test
     void getPopularFilms_ShouldReturnFilms() throws Exception {
-        int size = 5;
+        for (int i = 0; i < 12; i++) {
+            mockMvc.perform(post("/films")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validFilm)))
+                    .andExpect(status().isOk());
+        }
+        long userId = userStorage.addUser(validUser).getId();
+        filmService.addLike(7, userId);
+
+        // Фильмы без лайков не схлопываются в один: при равном числе лайков порядок по id
+        mockMvc.perform(get("/films/popular").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[*].id").value(contains(7, 1, 2, 3, 4)));
 
-        mockMvc.perform(post("/films")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(validFilm)))
-                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/popular").param("size", String.valueOf(-1)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/films/popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(10));
+    }
+
+    @Test
+    void getPopularFilms_WhenSizeExceedsCap_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/films/popular").param("size", "1001"))
+                .andExpect(status().isBadRequest());
 
+        mockMvc.perform(get("/films/popular").param("window", "7d").param("size", "1000000"))
+                .andExpect(status().isBadRequest());
 
-        mockMvc.perform(get("/films/popular").param("size", String.valueOf(size)))
+        mockMvc.perform(get("/films/popular").param("size", "1000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getPopularFilms_WithWindow_ShouldReturnOk() throws Exception {
+        mockMvc.perform(get("/films/popular").param("window", "7d"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$").isArray());
 
-        mockMvc.perform(get("/films/popular").param("size", String.valueOf(-1)))
+        mockMvc.perform(get("/films/popular").param("window", "24h").param("size", "3"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/popular").param("window", "1y"))
                 .andExpect(status().isBadRequest());
+    }
 
-        mockMvc.perform(get("/films/popular"))
+    @Test
+    void getFilmSummaries_ShouldReturnOnlySelectedFields() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/films")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validFilm)))
+                    .andExpect(status().isOk());
+        }
+        long userId = userStorage.addUser(validUser).getId();
+        filmService.addLike(2, userId);
+
+        // Пустой fields отдаёт сводку целиком: число лайков вместо их множества
+        mockMvc.perform(get("/films").param("fields", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[?(@.id == 2)].likeCount").value(1))
+                .andExpect(jsonPath("$[0].name").value("Test Film"))
+                .andExpect(jsonPath("$[0].releaseDate").value("2000-01-01"))
+                .andExpect(jsonPath("$[0].duration").value(120))
+                .andExpect(jsonPath("$[0].likes").doesNotExist());
+
+        mockMvc.perform(get("/films").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").exists())
+                .andExpect(jsonPath("$[0].name").value("Test Film"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].likeCount").doesNotExist());
+
+        mockMvc.perform(get("/films/popular").param("size", "2").param("fields", "id,likeCount"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[*].id").value(contains(2, 1)))
+                .andExpect(jsonPath("$[0].likeCount").value(1))
+                .andExpect(jsonPath("$[1].likeCount").value(0))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+
+        mockMvc.perform(get("/films").param("fields", "id,likes"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.description").value("Unknown film field likes"));
+
+        mockMvc.perform(get("/films/popular").param("fields", "rating"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.description").value("Unknown film field rating"));
+    }
 
+    @Test
+    void testFilmStatsAreRecomputedAfterMutation() throws Exception {
+        JsonNode before = objectMapper.readTree(mockMvc.perform(get("/films/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+
+        long userId = userStorage.addUser(validUser).getId();
+        long filmId = filmService.addFilm(validFilm).getId();
+        filmService.addLike(filmId, userId);
+
+        JsonNode after = objectMapper.readTree(mockMvc.perform(get("/films/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(before.get("films").asLong() + 1, after.get("films").asLong());
+        assertEquals(before.get("totalLikes").asLong() + 1, after.get("totalLikes").asLong());
+        assertEquals(before.path("filmsPerReleaseYear").path("2000").asLong() + 1,
+                after.get("filmsPerReleaseYear").get("2000").asLong());
     }
-}
\ No newline at end of file
+}
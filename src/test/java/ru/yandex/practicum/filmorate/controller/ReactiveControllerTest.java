@@ -0,0 +1,161 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DeletionService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Тот же API на WebFlux: профиль reactive поднимает реактивный сервер вместо сервлетного
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReactiveControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DeletionService deletionService;
+
+    @Test
+    void filmRoundTripAndNotFound() {
+        long id = addFilm("Reactive Film");
+
+        webTestClient.get().uri("/films/{id}", id)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.name").isEqualTo("Reactive Film")
+                .jsonPath("$.duration").isEqualTo(120);
+
+        webTestClient.get().uri("/films/{id}", id + 1)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Could not find entity.");
+    }
+
+    @Test
+    void filmsStreamAsNdjson() {
+        for (int i = 0; i < 3; i++) {
+            addFilm("Film " + i);
+        }
+
+        webTestClient.get().uri("/films")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Film.class).hasSize(3);
+    }
+
+    @Test
+    void popularFilmsWithFieldsAndUnknownField() {
+        long first = addFilm("First");
+        long second = addFilm("Second");
+        long user = addUser("liker");
+        webTestClient.put().uri("/films/{id}/like/{userId}", second, user).exchange().expectStatus().isOk();
+
+        webTestClient.get().uri("/films/popular?size=2&fields=id,likeCount")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(second)
+                .jsonPath("$[0].likeCount").isEqualTo(1)
+                .jsonPath("$[0].name").doesNotExist()
+                .jsonPath("$[1].id").isEqualTo(first)
+                .jsonPath("$[1].likeCount").isEqualTo(0);
+
+        webTestClient.get().uri("/films?fields=id,rating")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.description").isEqualTo("Unknown film field rating");
+    }
+
+    @Test
+    void friendsAreServedThroughUserService() {
+        long user = addUser("user");
+        long kept = addUser("kept");
+        long deleted = addUser("deleted");
+        webTestClient.put().uri("/users/{id}/friends/{friendId}", user, kept).exchange().expectStatus().isOk();
+        webTestClient.put().uri("/users/{id}/friends/{friendId}", user, deleted).exchange().expectStatus().isOk();
+        // Удалённый друг пропадает из списка сразу, ещё до фоновой очистки связей
+        deletionService.deleteUser(deleted);
+
+        webTestClient.get().uri("/users/{id}/friends", user)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(kept);
+
+        webTestClient.get().uri("/users/{id}/friends?fields=login", user)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].login").isEqualTo("kept")
+                .jsonPath("$[0].id").doesNotExist();
+
+        webTestClient.get().uri("/users/{id}/friends/common/{otherId}", user, kept)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(0);
+
+        webTestClient.get().uri("/users/{id}/friends", deleted)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private long addFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("This is a test film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return webTestClient.post().uri("/films")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(film)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Film.class)
+                .returnResult()
+                .getResponseBody()
+                .getId();
+    }
+
+    private long addUser(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(user)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(User.class)
+                .returnResult()
+                .getResponseBody()
+                .getId();
+    }
+}
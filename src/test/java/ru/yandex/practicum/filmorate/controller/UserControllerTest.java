@@ -11,17 +11,30 @@ import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.DeletionService;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.hamcrest.Matchers.contains;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+// Надгробия удаляются сразу после очистки, чтобы тест видел их истечение
+@SpringBootTest(properties = "filmorate.deletion.tombstone-grace=PT0S")
 @AutoConfigureMockMvc
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 class UserControllerTest {
@@ -40,6 +53,15 @@ class UserControllerTest {
     @Autowired
     private UserStorage userStorage;
 
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private DeletionService deletionService;
+
     @BeforeEach
     void setUp() {
         validUser = new User();
@@ -201,6 +223,71 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void applyFriendBatch_ShouldReturnPerItemOutcome() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validUser)))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(post("/users/{id}/friends:batch", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"friendId":2,"action":"ADD"},
+                                 {"friendId":3,"action":"ADD"},
+                                 {"friendId":3,"action":"REMOVE"},
+                                 {"friendId":1,"action":"ADD"},
+                                 {"friendId":999,"action":"ADD"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[1].status").value("APPLIED"))
+                .andExpect(jsonPath("$[2].status").value("APPLIED"))
+                .andExpect(jsonPath("$[3].status").value("INVALID"))
+                .andExpect(jsonPath("$[4].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/users/{id}/friends", 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        mockMvc.perform(get("/users/{id}/friends", 3))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void getFriendSummaries_ShouldReturnOnlySelectedFields() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(validUser)))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", 1, 2))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/users/{id}/friends/{friendId}", 1, 3))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users").param("fields", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[?(@.id == 1)].friendCount").value(2))
+                .andExpect(jsonPath("$[0].login").value("testUser"))
+                .andExpect(jsonPath("$[0].friends").doesNotExist());
+
+        mockMvc.perform(get("/users/{id}/friends", 2).param("fields", "id,friendCount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].friendCount").value(2))
+                .andExpect(jsonPath("$[0].login").doesNotExist());
+
+        mockMvc.perform(get("/users").param("fields", "id,friends"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void showCommonFriends_ShouldReturnOk() throws Exception {
 
@@ -234,5 +321,129 @@ class UserControllerTest {
 
     }
 
+    @Test
+    void getFriendPage_ShouldWalkFriendsInIdOrder() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            userService.addUser(copyOf(validUser));
+        }
+        for (long friendId = 6; friendId >= 2; friendId--) {
+            userService.addFriend(1, friendId);
+        }
+        userService.addFriend(2, 4);
+        userService.addFriend(2, 6);
+
+        mockMvc.perform(get("/users/{id}/friends/page", 1).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(2, 3)))
+                .andExpect(jsonPath("$.items[1].friendCount").value(1))
+                .andExpect(jsonPath("$.items[0].friends").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("3"));
+
+        mockMvc.perform(get("/users/{id}/friends/page", 1).param("limit", "2").param("cursor", "5")
+                        .param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id").value(contains(6)))
+                .andExpect(jsonPath("$.items[0].login").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/users/{id}/friends/common/{otherId}/page", 1, 2).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(4))
+                .andExpect(jsonPath("$.nextCursor").value("4"));
+
+        mockMvc.perform(get("/users/{id}/friends/count", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(5));
+
+        mockMvc.perform(get("/users/{id}/friends/common/{otherId}/count", 1, 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2));
+
+        mockMvc.perform(get("/users/{id}/friends/page", 1).param("cursor", "abc"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/users/{id}/friends/page", 1).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteUser_ShouldRemoveItsFriendshipsAndLikes() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            userService.addUser(copyOf(validUser));
+        }
+        userService.addFriend(1, 2);
+        userService.addFriend(1, 3);
+        userService.addFriend(2, 3);
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("This is a test film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        long filmId = filmService.addFilm(film).getId();
+        filmService.addLike(filmId, 1);
+        filmService.addLike(filmId, 2);
+
+        mockMvc.perform(delete("/users/{id}", 1))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/{id}", 1))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/{id}/friends", 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(contains(3)));
+
+        awaitCleanup();
+        Assertions.assertEquals(Set.of(3L), userStorage.getUser(2).getFriends());
+        Assertions.assertEquals(Set.of(2L), userStorage.getUser(3).getFriends());
+        Assertions.assertEquals(Set.of(2L), filmStorage.getFilm(filmId).getLikes());
+        Assertions.assertEquals(0, deletionService.getTombstones());
 
-}
\ No newline at end of file
+        mockMvc.perform(delete("/users/{id}", 1))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void concurrentDeletesOfOneUser_ShouldSucceedOnceAndLeaveNoTombstone() throws Exception {
+        long userId = userService.addUser(copyOf(validUser)).getId();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger deleted = new AtomicInteger();
+        List<Thread> deleters = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            deleters.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                    deletionService.deleteUser(userId);
+                    deleted.incrementAndGet();
+                } catch (NotFoundException | InterruptedException e) {
+                    // Проигравшие удаление видят, что пользователя уже нет
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread deleter : deleters) {
+            deleter.join();
+        }
+
+        awaitCleanup();
+        Assertions.assertEquals(1, deleted.get());
+        // Надгробие принадлежит единственному успешному удалению и истекает вместе с его очисткой
+        Assertions.assertEquals(0, deletionService.getTombstones());
+    }
+
+    private void awaitCleanup() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (deletionService.getPendingCleanups() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(0, deletionService.getPendingCleanups());
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setName(user.getName());
+        copy.setLogin(user.getLogin());
+        copy.setEmail(user.getEmail());
+        copy.setBirthday(user.getBirthday());
+        return copy;
+    }
+}
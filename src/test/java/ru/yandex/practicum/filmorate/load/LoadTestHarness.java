@@ -0,0 +1,299 @@
+package ru.yandex.practicum.filmorate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.benchmark.ZipfDistribution;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Seeds the API with power-law likes and friendships, then drives a read/write mix from virtual threads
+// and reports throughput and latency percentiles per operation. Runs entirely on the local machine:
+// without --base-url the application is started in-process on a random port, which also lets the
+// soak monitor observe the server's heap and lock contention. --stacks runs the same workload once per
+// listed stack, servlet for the default MVC one and otherwise a profile such as reactive, and per entry of
+// --connections, each against a fresh application, then prints throughput and tail latency side by side.
+// The client speaks HTTP/1.1, so every worker holds one connection and the level is the open connection count.
+//
+// Example: --users=20000 --films=10000 --concurrency=512 --write-ratio=0.1 --duration=PT30M
+// Example: --stacks=servlet,reactive --connections=256,1024,4096 --duration=PT2M
+public class LoadTestHarness {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SERVLET_STACK = "servlet";
+
+    private enum Operation {
+        GET_FILM(false), GET_USER(false), POPULAR(false), FRIENDS(false), COMMON_FRIENDS(false),
+        LIKE(true), FRIEND(true);
+
+        private final boolean write;
+
+        Operation(boolean write) {
+            this.write = write;
+        }
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failures = new EnumMap<>(Operation.class);
+
+    // Throughput and latency over all operations of one run
+    private record RunSummary(double opsPerSecond, Histogram latency, long failures) {
+    }
+    private long[] userIds;
+    private long[] filmIds;
+
+    private LoadTestHarness(HttpClient client, String baseUrl, LoadTestOptions options) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.options = options;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+            failures.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.baseUrl() != null) {
+            run(options.baseUrl(), options);
+            return;
+        }
+        // Every stack and connection level gets a fresh process-local application and the same seeded workload
+        Map<String, RunSummary> summaries = new LinkedHashMap<>();
+        for (String stack : options.stacks()) {
+            for (int connections : options.connections()) {
+                System.out.printf("=== %s, %d connections ===%n", stack, connections);
+                List<String> appArgs = new ArrayList<>(List.of("--server.port=0",
+                        "--filmorate.logging.http.sample-rate=0", "--filmorate.admission.enabled=false"));
+                if (!SERVLET_STACK.equals(stack)) {
+                    appArgs.add("--spring.profiles.active=" + stack);
+                }
+                try (ConfigurableApplicationContext context = SpringApplication.run(FilmorateApplication.class,
+                        appArgs.toArray(String[]::new))) {
+                    String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                    summaries.put(stack + " " + connections, run(baseUrl, options.withConcurrency(connections)));
+                }
+            }
+        }
+        if (summaries.size() > 1) {
+            System.out.printf("%-24s %10s %10s %10s %10s %8s%n", "stack connections", "ops/s", "p50 us", "p99 us",
+                    "p999 us", "errors");
+            summaries.forEach((run, summary) -> System.out.printf("%-24s %10.0f %10.0f %10.0f %10.0f %8d%n",
+                    run, summary.opsPerSecond(), summary.latency().getValueAtPercentile(50) / 1e3,
+                    summary.latency().getValueAtPercentile(99) / 1e3,
+                    summary.latency().getValueAtPercentile(99.9) / 1e3, summary.failures()));
+        }
+    }
+
+    private static RunSummary run(String baseUrl, LoadTestOptions options) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            LoadTestHarness harness = new LoadTestHarness(client, baseUrl, options);
+            harness.seed(executor);
+            return harness.drive(executor);
+        }
+    }
+
+    private void seed(ExecutorService executor) throws Exception {
+        long start = System.nanoTime();
+        userIds = createAll(executor, options.users(), i -> post("/users", """
+                {"login":"user%d","name":"User %d","email":"user%d@example.com","birthday":"1990-01-01"}
+                """.formatted(i, i, i)));
+        filmIds = createAll(executor, options.films(), i -> post("/films", """
+                {"name":"Film %d","description":"Seeded film","releaseDate":"2000-01-01","duration":100}
+                """.formatted(i)));
+
+        Random random = new Random(options.seed());
+        ZipfDistribution popularFilms = new ZipfDistribution(filmIds.length, 1.0, options.seed());
+        ZipfDistribution popularUsers = new ZipfDistribution(userIds.length, 1.0, options.seed() + 1);
+        List<String> edges = new ArrayList<>(options.likes() + options.friendships());
+        for (int i = 0; i < options.likes(); i++) {
+            edges.add("/films/" + filmIds[(int) popularFilms.next() - 1]
+                    + "/like/" + userIds[random.nextInt(userIds.length)]);
+        }
+        for (int i = 0; i < options.friendships(); i++) {
+            long userId = userIds[(int) popularUsers.next() - 1];
+            long friendId = userIds[random.nextInt(userIds.length)];
+            if (userId != friendId) {
+                edges.add("/users/" + userId + "/friends/" + friendId);
+            }
+        }
+        createAll(executor, edges.size(), i -> {
+            put(edges.get(i));
+            return 0;
+        });
+        System.out.printf("Seeded %d users, %d films, %d edges in %d ms%n",
+                userIds.length, filmIds.length, edges.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private RunSummary drive(ExecutorService executor) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> workers = new ArrayList<>(options.concurrency());
+        for (int i = 0; i < options.concurrency(); i++) {
+            workers.add(executor.submit(() -> {
+                while (running.get()) {
+                    execute(nextOperation());
+                }
+                return null;
+            }));
+        }
+
+        Thread.sleep(options.warmup().toMillis());
+        latencies.values().forEach(Recorder::reset);
+        failures.values().forEach(LongAdder::reset);
+
+        SoakMonitor monitor = new SoakMonitor();
+        long start = System.nanoTime();
+        long deadline = start + options.duration().toNanos();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(Math.min(options.sampleInterval().toMillis(),
+                    Math.max(1, (deadline - System.nanoTime()) / 1_000_000)));
+            monitor.sample();
+        }
+        running.set(false);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        RunSummary summary = report(seconds);
+        monitor.report();
+        return summary;
+    }
+
+    private Operation nextOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < options.writeRatio()) {
+            return random.nextBoolean() ? Operation.LIKE : Operation.FRIEND;
+        }
+        return switch (random.nextInt(10)) {
+            case 0, 1, 2, 3 -> Operation.GET_FILM;
+            case 4, 5 -> Operation.GET_USER;
+            case 6, 7 -> Operation.FRIENDS;
+            case 8 -> Operation.POPULAR;
+            default -> Operation.COMMON_FRIENDS;
+        };
+    }
+
+    private void execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long userId = userIds[random.nextInt(userIds.length)];
+        long otherUserId = userIds[random.nextInt(userIds.length)];
+        long filmId = filmIds[random.nextInt(filmIds.length)];
+        String path = switch (operation) {
+            case GET_FILM -> "/films/" + filmId;
+            case GET_USER -> "/users/" + userId;
+            case POPULAR -> "/films/popular?size=10";
+            case FRIENDS -> "/users/" + userId + "/friends";
+            case COMMON_FRIENDS -> "/users/" + userId + "/friends/common/" + otherUserId;
+            case LIKE -> "/films/" + filmId + "/like/" + userId;
+            case FRIEND -> "/users/" + userId + "/friends/" + otherUserId;
+        };
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        request = operation.write ? request.PUT(HttpRequest.BodyPublishers.noBody()) : request.GET();
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            // Only server errors count as failures, client errors are part of the generated workload
+            if (response.statusCode() >= 500) {
+                failures.get(operation).increment();
+            }
+        } catch (IOException e) {
+            failures.get(operation).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        latencies.get(operation).recordValue(System.nanoTime() - start);
+    }
+
+    private RunSummary report(double seconds) {
+        Histogram all = new Histogram(3);
+        long errors = 0;
+        System.out.printf("%-16s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "ops/s", "p50 us", "p99 us", "p999 us", "errors");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation).getIntervalHistogram();
+            all.add(histogram);
+            errors += failures.get(operation).sum();
+            System.out.printf("%-16s %10d %10.0f %10.0f %10.0f %10.0f %8d%n",
+                    operation, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getValueAtPercentile(99.9) / 1e3, failures.get(operation).sum());
+        }
+        long total = all.getTotalCount();
+        System.out.printf("total %d requests, %.0f ops/s over %.1f s%n", total, total / seconds, seconds);
+        return new RunSummary(total / seconds, all, errors);
+    }
+
+    private long[] createAll(ExecutorService executor, int count, IndexedCall call) throws Exception {
+        Semaphore permits = new Semaphore(options.concurrency());
+        List<Future<Long>> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            permits.acquire();
+            results.add(executor.submit(() -> {
+                try {
+                    return call.apply(index);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = results.get(i).get();
+        }
+        return ids;
+    }
+
+    private long post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + path + " failed: " + response.body());
+        }
+        return MAPPER.readTree(response.body()).get("id").asLong();
+    }
+
+    private void put(String path) throws IOException, InterruptedException {
+        client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    @FunctionalInterface
+    private interface IndexedCall {
+        long apply(int index) throws Exception;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public record LoadTestOptions(String baseUrl,
+                              int users,
+                              int films,
+                              int likes,
+                              int friendships,
+                              int concurrency,
+                              double writeRatio,
+                              Duration warmup,
+                              Duration duration,
+                              Duration sampleInterval,
+                              long seed,
+                              List<String> stacks,
+                              List<Integer> connections) {
+
+    // Arguments are --name=value pairs; without --base-url the application is started in-process, once per
+    // entry of --stacks and of --connections, which defaults to the single --concurrency level
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        String concurrency = values.getOrDefault("concurrency", "256");
+        return new LoadTestOptions(
+                values.get("base-url"),
+                Integer.parseInt(values.getOrDefault("users", "10000")),
+                Integer.parseInt(values.getOrDefault("films", "5000")),
+                Integer.parseInt(values.getOrDefault("likes", "100000")),
+                Integer.parseInt(values.getOrDefault("friendships", "50000")),
+                Integer.parseInt(concurrency),
+                Double.parseDouble(values.getOrDefault("write-ratio", "0.05")),
+                Duration.parse(values.getOrDefault("warmup", "PT10S")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Duration.parse(values.getOrDefault("sample-interval", "PT5S")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                List.of(values.getOrDefault("stacks", "servlet").split(",")),
+                Arrays.stream(values.getOrDefault("connections", concurrency).split(","))
+                        .map(Integer::valueOf)
+                        .toList());
+    }
+
+    public LoadTestOptions withConcurrency(int concurrency) {
+        return new LoadTestOptions(baseUrl, users, films, likes, friendships, concurrency, writeRatio, warmup,
+                duration, sampleInterval, seed, stacks, connections);
+    }
+}
@@ -0,0 +1,218 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.config.FeedOffsetFilter;
+import ru.yandex.practicum.filmorate.config.ReplicaReadInterceptor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Drives writes against the leader and measures how long each one takes to become visible on a follower: from
+// the leader's answer, stamped with the feed offset covering the write, until the follower reports having
+// applied that offset. A single reader polls the follower, so a sample can be late by its round trip plus
+// --poll-interval. Without --leader-url a leader and a follower tailing it are started in-process on random
+// ports; otherwise both URLs name running processes.
+//
+// Example: --concurrency=64 --duration=PT2M
+// Example: --leader-url=http://localhost:8080 --follower-url=http://localhost:8081 --concurrency=256
+public class ReplicationLagProbe {
+
+    private static final int SEEDED = 1_000;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private record Write(long offset, long answeredAt) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        Duration pollInterval = Duration.parse(options.getOrDefault("poll-interval", "PT0.001S"));
+        String leaderUrl = options.get("leader-url");
+        if (leaderUrl != null) {
+            String followerUrl = options.get("follower-url");
+            if (followerUrl == null) {
+                throw new IllegalArgumentException("--leader-url needs --follower-url");
+            }
+            probe(leaderUrl, followerUrl, concurrency, duration, pollInterval);
+            return;
+        }
+        try (ConfigurableApplicationContext leader = new SpringApplicationBuilder(FilmorateApplication.class).run(
+                "--server.port=0", "--filmorate.admission.enabled=false", "--filmorate.logging.http.sample-rate=0");
+             ConfigurableApplicationContext follower = new SpringApplicationBuilder(FilmorateApplication.class)
+                     .profiles("follower")
+                     .run("--server.port=0", "--filmorate.replication.leader-url=" + baseUrl(leader),
+                             "--filmorate.admission.enabled=false", "--filmorate.logging.http.sample-rate=0")) {
+            probe(baseUrl(leader), baseUrl(follower), concurrency, duration, pollInterval);
+        }
+    }
+
+    private static void probe(String leaderUrl, String followerUrl, int concurrency, Duration duration,
+                              Duration pollInterval) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long seeded = 0;
+        for (int i = 0; i < SEEDED; i++) {
+            post(client, leaderUrl + "/users", """
+                    {"login":"lag%d","name":"Lag %d","email":"lag%d@example.com","birthday":"1990-01-01"}
+                    """.formatted(i, i, i));
+            seeded = post(client, leaderUrl + "/films", film(i));
+        }
+        // Seeding is not measured: the drive starts once the follower holds everything written so far
+        while (replicaOffset(client, followerUrl) < seeded) {
+            Thread.sleep(pollInterval);
+        }
+        System.out.printf("Seeded %d users and %d films, follower caught up at offset %d%n", SEEDED, SEEDED, seeded);
+
+        Queue<Write> answered = new ConcurrentLinkedQueue<>();
+        AtomicLong leaderOffset = new AtomicLong(seeded);
+        LongAdder failures = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Histogram lag = new Histogram(3);
+        Histogram gap = new Histogram(3);
+        PriorityQueue<Write> pending = new PriorityQueue<>(Comparator.comparingLong(Write::offset));
+        long writes = 0;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        try {
+                            long offset = write(client, leaderUrl);
+                            answered.add(new Write(offset, System.nanoTime()));
+                            leaderOffset.accumulateAndGet(offset, Math::max);
+                        } catch (IOException | IllegalStateException e) {
+                            failures.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long end = start + duration.toNanos();
+            while (System.nanoTime() < end) {
+                writes += observe(client, followerUrl, answered, pending, lag, gap, leaderOffset.get());
+                Thread.sleep(pollInterval);
+            }
+            running.set(false);
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Writes still in flight when the drive stopped are waited for, so the tail is not cut off
+        long drainEnd = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while ((!answered.isEmpty() || !pending.isEmpty()) && System.nanoTime() < drainEnd) {
+            writes += observe(client, followerUrl, answered, pending, lag, gap, leaderOffset.get());
+            Thread.sleep(pollInterval);
+        }
+
+        long unreplicated = pending.size() + answered.size();
+        System.out.printf("%d writes (%.0f ops/s) from %d connections, %d failed, %d not replicated within %d s%n",
+                writes + unreplicated, (writes + unreplicated) / seconds, concurrency, failures.sum(), unreplicated,
+                DRAIN_TIMEOUT.toSeconds());
+        System.out.printf("%-20s %10s %10s %10s %10s %10s%n", "", "p50", "p99", "p99.9", "max", "mean");
+        System.out.printf("%-20s %10.1f %10.1f %10.1f %10.1f %10.1f%n", "lag ms",
+                lag.getValueAtPercentile(50) / 1e3, lag.getValueAtPercentile(99) / 1e3,
+                lag.getValueAtPercentile(99.9) / 1e3, lag.getMaxValue() / 1e3, lag.getMean() / 1e3);
+        System.out.printf("%-20s %10d %10d %10d %10d %10.1f%n", "gap events",
+                gap.getValueAtPercentile(50), gap.getValueAtPercentile(99), gap.getValueAtPercentile(99.9),
+                gap.getMaxValue(), gap.getMean());
+    }
+
+    // Polls the follower once and records the lag of every write its applied offset now covers, in
+    // microseconds, and how many events it trails the leader by; returns the number of writes resolved
+    private static long observe(HttpClient client, String followerUrl, Queue<Write> answered,
+                                PriorityQueue<Write> pending, Histogram lag, Histogram gap, long leaderOffset)
+            throws IOException, InterruptedException {
+        long replicaOffset = replicaOffset(client, followerUrl);
+        long now = System.nanoTime();
+        for (Write write = answered.poll(); write != null; write = answered.poll()) {
+            pending.add(write);
+        }
+        gap.recordValue(Math.max(0, leaderOffset - replicaOffset));
+        long resolved = 0;
+        while (!pending.isEmpty() && pending.peek().offset() <= replicaOffset) {
+            lag.recordValue(Math.max(0, now - pending.poll().answeredAt()) / 1_000);
+            resolved++;
+        }
+        return resolved;
+    }
+
+    // Half of the writes add a film and half like a seeded one; returns the feed offset the leader stamped
+    private static long write(HttpClient client, String leaderUrl) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextBoolean()) {
+            return post(client, leaderUrl + "/films", film(random.nextInt(SEEDED)));
+        }
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(leaderUrl + "/films/"
+                        + (random.nextInt(SEEDED) + 1) + "/like/" + (random.nextInt(SEEDED) + 1)))
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return feedOffset(response);
+    }
+
+    private static long post(HttpClient client, String url, String json) throws IOException, InterruptedException {
+        return feedOffset(client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.discarding()));
+    }
+
+    private static long feedOffset(HttpResponse<?> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.request().uri() + " answered " + response.statusCode());
+        }
+        return Long.parseLong(response.headers().firstValue(FeedOffsetFilter.FEED_OFFSET_HEADER)
+                .orElseThrow(() -> new IllegalStateException(response.request().uri() + " carries no feed offset")));
+    }
+
+    // A minimum offset of 0 is always met, so the follower answers even when it is too stale for plain reads
+    private static long replicaOffset(HttpClient client, String followerUrl) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(followerUrl + "/films/1"))
+                .header(ReplicaReadInterceptor.MIN_OFFSET_HEADER, "0")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.discarding());
+        return response.headers().firstValueAsLong(ReplicaReadInterceptor.REPLICA_OFFSET_HEADER).orElse(-1);
+    }
+
+    private static String film(int i) {
+        return """
+                {"name":"Lag film %d","description":"Replication lag probe","releaseDate":"2000-01-01","duration":100}
+                """.formatted(i);
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+// Samples heap occupancy right after collections and thread contention of the in-process server.
+// A steadily positive slope of the post-GC heap over a long run points at a leak.
+public class SoakMonitor {
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<long[]> heapSamples = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+
+    public SoakMonitor() {
+        if (threads.isThreadContentionMonitoringSupported()) {
+            threads.setThreadContentionMonitoringEnabled(true);
+        }
+    }
+
+    public void sample() {
+        long usedAfterGc = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                usedAfterGc += pool.getCollectionUsage().getUsed();
+            }
+        }
+        long elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000L;
+        heapSamples.add(new long[]{elapsedSeconds, usedAfterGc});
+        System.out.printf("[soak] t=%ds heap after GC %d MiB, gc count %d, %s%n",
+                elapsedSeconds, usedAfterGc >> 20, gcCount(), contention());
+    }
+
+    public void report() {
+        System.out.printf("[soak] post-GC heap growth %.1f KiB/min over %d samples%n",
+                heapSlopePerMinute() / 1024, heapSamples.size());
+    }
+
+    private double heapSlopePerMinute() {
+        int n = heapSamples.size();
+        if (n < 2) {
+            return 0;
+        }
+        double meanX = heapSamples.stream().mapToLong(s -> s[0]).average().orElse(0);
+        double meanY = heapSamples.stream().mapToLong(s -> s[1]).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (long[] sample : heapSamples) {
+            covariance += (sample[0] - meanX) * (sample[1] - meanY);
+            variance += (sample[0] - meanX) * (sample[0] - meanX);
+        }
+        return variance == 0 ? 0 : covariance / variance * 60;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans()
+                .stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private String contention() {
+        long blockedCount = 0;
+        long blockedMillis = 0;
+        String hottest = "-";
+        long hottestCount = 0;
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info == null) {
+                continue;
+            }
+            blockedCount += info.getBlockedCount();
+            blockedMillis += Math.max(0, info.getBlockedTime());
+            if (info.getBlockedCount() > hottestCount) {
+                hottestCount = info.getBlockedCount();
+                hottest = info.getThreadName();
+            }
+        }
+        return "monitor blocks " + blockedCount + " (" + blockedMillis + " ms), most blocked thread " + hottest;
+    }
+}
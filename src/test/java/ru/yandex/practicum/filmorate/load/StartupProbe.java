@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Launches the application as a child process and measures, from the moment of launch, when the first
+// request is answered, when the readiness probe turns green and when throughput reaches its plateau.
+// Usage: StartupProbe [--base-url=...] [--concurrency=...] [--duration=PT60S] [--window=PT1S] -- <command...>
+public class StartupProbe {
+
+    private static final double PEAK_FRACTION = 0.9;
+    private static final int SEEDED = 50;
+
+    public static void main(String[] args) throws Exception {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            throw new IllegalArgumentException("Expected options, then -- and the command starting the application");
+        }
+        Map<String, String> options = new HashMap<>();
+        for (String arg : Arrays.copyOfRange(args, 0, separator)) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        Duration window = Duration.parse(options.getOrDefault("window", "PT1S"));
+        List<String> command = List.of(Arrays.copyOfRange(args, separator + 1, args.length));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        long launched = System.nanoTime();
+        Process application = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("startup-probe.log"))
+                .start();
+        try {
+            long firstResponse = awaitStatus(client, baseUrl + "/films", launched);
+            long ready = awaitStatus(client, baseUrl + "/actuator/health/readiness", launched);
+            System.out.printf("Time to first request %d ms, time to ready %d ms%n",
+                    millis(firstResponse - launched), millis(ready - launched));
+
+            seed(client, baseUrl);
+            long driveStart = System.nanoTime();
+            List<Double> throughput = drive(client, baseUrl, concurrency, duration, window);
+            double peak = throughput.stream().mapToDouble(Double::doubleValue).max().orElse(0);
+            long windowMillis = window.toMillis();
+            for (int i = 0; i < throughput.size(); i++) {
+                if (throughput.get(i) >= peak * PEAK_FRACTION) {
+                    long peakAt = millis(driveStart - launched) + (i + 1) * windowMillis;
+                    System.out.printf("Peak throughput %.0f req/s, %.0f%% of it reached %d ms after launch%n",
+                            peak, PEAK_FRACTION * 100, peakAt);
+                    break;
+                }
+            }
+            System.out.println("Throughput per window: "
+                    + throughput.stream().map(value -> String.format("%.0f", value)).toList());
+        } finally {
+            application.destroy();
+            application.waitFor();
+        }
+    }
+
+    // Polls until the URL answers 200 and returns the nanoTime of that response
+    private static long awaitStatus(HttpClient client, String url, long launched) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(1)).GET().build();
+        while (true) {
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.nanoTime();
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            if (System.nanoTime() - launched > Duration.ofMinutes(2).toNanos()) {
+                throw new IllegalStateException(url + " did not answer within two minutes");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void seed(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        for (int i = 0; i < SEEDED; i++) {
+            post(client, baseUrl + "/users", """
+                    {"login":"probe%d","name":"Probe %d","email":"probe%d@example.com","birthday":"1990-01-01"}
+                    """.formatted(i, i, i));
+            post(client, baseUrl + "/films", """
+                    {"name":"Probe film %d","description":"Startup probe","releaseDate":"2000-01-01","duration":100}
+                    """.formatted(i));
+        }
+    }
+
+    private static void post(HttpClient client, String url, String json) throws IOException, InterruptedException {
+        client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    // Single-entity reads avoid the per-client limits on list routes and exercise Film and User serialization
+    private static List<Double> drive(HttpClient client, String baseUrl, int concurrency, Duration duration,
+                                      Duration window) throws Exception {
+        LongAdder completed = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Double> throughput = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        String path = (random.nextBoolean() ? "/films/" : "/users/") + (random.nextInt(SEEDED) + 1);
+                        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .GET().build(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            completed.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long windows = duration.toMillis() / window.toMillis();
+            for (long i = 0; i < windows; i++) {
+                Thread.sleep(window.toMillis());
+                throughput.add(completed.sumThenReset() * 1000d / window.toMillis());
+            }
+            running.set(false);
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return throughput;
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+}
@@ -102,6 +102,18 @@ class FilmTest {
         assertDoesNotThrow(() -> filmService.validateFilm(film));
     }
 
+    @Test
+    void testValidateFilmReportsAllViolations() {
+        Film film = new Film();
+        film.setName(" ");
+        film.setDescription("This is a test film");
+        film.setReleaseDate(LocalDate.of(1895, 12, 27));
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> filmService.validateFilm(film));
+        assertEquals("Film name must not be blank; Film duration must not be null; "
+                + "Film release date must not be before 1895-12-28", exception.getMessage());
+    }
+
     @Test
     void testSettersAndGetters() {
         Film film = new Film();
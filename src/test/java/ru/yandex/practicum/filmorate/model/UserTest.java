@@ -66,7 +66,8 @@ class UserTest {
         user.setLogin("testLogin");
 
 
-        assertThrows(NullPointerException.class, () -> userService.validateUser(user));
+        ValidationException exception = assertThrows(ValidationException.class, () -> userService.validateUser(user));
+        assertEquals("User birthday must not be null", exception.getMessage());
     }
 
     @Test
@@ -85,4 +86,25 @@ class UserTest {
         assertEquals("Test User", user.getName());
         assertEquals(LocalDate.of(2000, 1, 1), user.getBirthday());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testTextFieldsKeepNonAsciiValuesAndEquality() {
+        User first = new User();
+        first.setLogin("ivanov");
+        first.setName("Иван Иванов");
+        first.setEmail("ivanov@example.com");
+        User second = new User();
+        second.setLogin(new String("ivanov"));
+        second.setName(new String("Иван Иванов"));
+        second.setEmail("ivanov@example.com");
+
+        assertEquals("Иван Иванов", first.getName());
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertTrue(first.toString().contains("name=Иван Иванов"));
+
+        second.setName(null);
+        assertNull(second.getName());
+        assertNotEquals(first, second);
+    }
+}
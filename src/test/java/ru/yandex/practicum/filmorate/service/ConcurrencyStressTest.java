@@ -0,0 +1,190 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Hammers like and friendship mutations from many threads and checks invariants that any
+// storage implementation has to keep under contention.
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ConcurrencyStressTest {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+    private static final int USERS = 50;
+    private static final int FILMS = 10;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void concurrentCreationAssignsUniqueIds() throws Exception {
+        Set<Long> userIds = ConcurrentHashMap.newKeySet();
+        Set<Long> filmIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(i -> {
+            userIds.add(userStorage.addUser(newUser(i)).getId());
+            filmIds.add(filmStorage.addFilm(newFilm(i)).getId());
+        }, 200);
+
+        assertEquals(THREADS * 200, userIds.size());
+        assertEquals(THREADS * 200, filmIds.size());
+        assertEquals(THREADS * 200, userStorage.getUsers().size());
+        assertEquals(THREADS * 200, filmStorage.getFilms().size());
+    }
+
+    @Test
+    void concurrentLikeChurnKeepsLikeCountsConsistent() throws Exception {
+        List<Long> users = createUsers();
+        List<Long> films = new ArrayList<>();
+        for (int i = 0; i < FILMS; i++) {
+            films.add(filmStorage.addFilm(newFilm(i)).getId());
+        }
+        ConcurrentHashMap<Long, LongAdder> netLikes = new ConcurrentHashMap<>();
+
+        runConcurrently(i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long filmId = films.get(random.nextInt(films.size()));
+            long userId = users.get(random.nextInt(users.size()));
+            try {
+                if (random.nextBoolean()) {
+                    if (filmService.addLike(filmId, userId)) {
+                        netLikes.computeIfAbsent(filmId, id -> new LongAdder()).increment();
+                    }
+                } else {
+                    filmService.removeLike(filmId, userId);
+                    netLikes.computeIfAbsent(filmId, id -> new LongAdder()).decrement();
+                }
+            } catch (NotFoundException e) {
+                // Удаление отсутствующего лайка — ожидаемый исход
+            }
+            if (i % 100 == 0) {
+                filmService.getPopularFilms(3);
+            }
+        }, OPERATIONS_PER_THREAD);
+
+        for (long filmId : films) {
+            Film film = filmStorage.getFilm(filmId);
+            long expected = netLikes.getOrDefault(filmId, new LongAdder()).sum();
+            assertEquals(expected, film.getLikes().size(), "like count of film " + filmId);
+            assertTrue(users.containsAll(film.getLikes()), "film " + filmId + " liked by unknown user");
+        }
+    }
+
+    @Test
+    void concurrentFriendChurnKeepsFriendshipsSymmetric() throws Exception {
+        List<Long> users = createUsers();
+
+        runConcurrently(i -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long userId = users.get(random.nextInt(users.size()));
+            long friendId = users.get(random.nextInt(users.size()));
+            if (userId == friendId) {
+                return;
+            }
+            switch (random.nextInt(4)) {
+                case 0 -> userService.addFriend(userId, friendId);
+                case 1 -> userService.removeFriend(friendId, userId);
+                case 2 -> {
+                    User update = newUser(i);
+                    update.setId(userId);
+                    userStorage.updateUser(update);
+                }
+                default -> userService.showCommonFriends(userId, friendId);
+            }
+        }, OPERATIONS_PER_THREAD);
+
+        for (long userId : users) {
+            for (long friendId : userStorage.getUser(userId).getFriends()) {
+                assertTrue(userStorage.getUser(friendId).getFriends().contains(userId),
+                        "friendship " + userId + " -> " + friendId + " is one-sided");
+            }
+        }
+    }
+
+    private List<Long> createUsers() {
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(userStorage.addUser(newUser(i)).getId());
+        }
+        return users;
+    }
+
+    private void runConcurrently(Operation operation, int operationsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < operationsPerThread; i++) {
+                        operation.run(i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static User newUser(int index) {
+        User user = new User();
+        user.setLogin("user" + index);
+        user.setName("User " + index);
+        user.setEmail("user" + index + "@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static Film newFilm(int index) {
+        Film film = new Film();
+        film.setName("Film " + index);
+        film.setDescription("Stress test film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(100));
+        return film;
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(int index) throws Exception;
+    }
+}
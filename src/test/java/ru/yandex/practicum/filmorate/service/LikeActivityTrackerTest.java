@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.PopularityWindow;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LikeActivityTrackerTest {
+
+    private MutableClock clock;
+    private LikeActivityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        tracker = new LikeActivityTracker(clock);
+    }
+
+    @Test
+    void likesLeaveDayWindowAfter24Hours() {
+        tracker.recordLike(1);
+        tracker.recordLike(1);
+
+        clock.advance(Duration.ofHours(23));
+        assertEquals(2, tracker.getLikeCount(1, PopularityWindow.DAY));
+
+        clock.advance(Duration.ofHours(1));
+        assertEquals(0, tracker.getLikeCount(1, PopularityWindow.DAY));
+        assertEquals(2, tracker.getLikeCount(1, PopularityWindow.WEEK));
+
+        clock.advance(Duration.ofDays(6));
+        assertEquals(0, tracker.getLikeCount(1, PopularityWindow.WEEK));
+    }
+
+    @Test
+    void unlikeIsSubtractedFromWindow() {
+        tracker.recordLike(1);
+        tracker.recordLike(1);
+        tracker.recordUnlike(1);
+
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.DAY));
+    }
+
+    @Test
+    void unlikeIsSubtractedOnlyFromWindowsHoldingLikes() {
+        tracker.recordLike(1);
+        clock.advance(Duration.ofDays(2));
+        // Лайк двухдневной давности уже вне суточного окна, но ещё в недельном
+        tracker.recordUnlike(1);
+        tracker.recordLike(1);
+
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.DAY));
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.WEEK));
+    }
+
+    @Test
+    void unlikeTakesBackOldestLikeOfWindow() {
+        tracker.recordLike(1);
+        clock.advance(Duration.ofDays(2));
+        tracker.recordLike(1);
+        tracker.recordUnlike(1);
+
+        // Недельное окно теряет давний лайк, поэтому свежий остаётся в нём и после выхода давнего бакета
+        clock.advance(Duration.ofDays(5).plusHours(1));
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.WEEK));
+    }
+
+    @Test
+    void unlikeNeverDrivesWindowBelowZero() {
+        tracker.recordLike(1);
+        clock.advance(Duration.ofDays(8));
+        tracker.recordUnlike(1);
+        tracker.recordUnlike(1);
+        tracker.recordUnlike(2);
+
+        assertEquals(0, tracker.getLikeCount(1, PopularityWindow.WEEK));
+        tracker.recordLike(1);
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.DAY));
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.WEEK));
+        assertEquals(0, tracker.getLikeCount(2, PopularityWindow.WEEK));
+    }
+
+    @Test
+    void likeChurnLeavesNothingBehind() {
+        for (int i = 0; i < 10_000; i++) {
+            tracker.recordLike(1);
+            tracker.recordUnlike(1);
+            clock.advance(Duration.ofMinutes(7));
+        }
+
+        assertEquals(0, tracker.getLikeCount(1, PopularityWindow.DAY));
+        assertEquals(0, tracker.getLikeCount(1, PopularityWindow.WEEK));
+    }
+
+    @Test
+    void topFilmsAreOrderedByRecentActivity() {
+        // Фильм 1 набрал лайки давно, фильм 2 и 3 — за последние сутки
+        for (int i = 0; i < 5; i++) {
+            tracker.recordLike(1);
+        }
+        clock.advance(Duration.ofDays(2));
+        tracker.recordLike(2);
+        tracker.recordLike(3);
+        tracker.recordLike(3);
+
+        assertEquals(List.of(3L, 2L), tracker.getTopFilmIds(PopularityWindow.DAY, 10));
+        assertEquals(List.of(1L, 3L), tracker.getTopFilmIds(PopularityWindow.WEEK, 2));
+    }
+
+    @Test
+    void idleFilmsAreDroppedAfterWeek() {
+        tracker.recordLike(1);
+        clock.advance(Duration.ofDays(8));
+
+        assertEquals(List.of(), tracker.getTopFilmIds(PopularityWindow.WEEK, 10));
+        tracker.recordLike(1);
+        assertEquals(1, tracker.getLikeCount(1, PopularityWindow.WEEK));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
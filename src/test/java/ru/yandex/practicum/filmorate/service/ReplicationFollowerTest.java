@@ -0,0 +1,232 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.config.FeedOffsetFilter;
+import ru.yandex.practicum.filmorate.config.ReplicaReadInterceptor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Лидер — этот контекст на случайном порту, последователь поднимается отдельным контекстом с профилем follower.
+// Лента лидера маленькая, чтобы последователь, пропустивший несколько событий, получал усечённую страницу.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"filmorate.feed.capacity=16", "filmorate.admission.enabled=false"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReplicationFollowerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DeletionService deletionService;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ConfigurableApplicationContext follower;
+
+    @AfterEach
+    void stopFollower() {
+        if (follower != null) {
+            follower.close();
+        }
+    }
+
+    @Test
+    void appliesLeaderEventsInOrder() throws Exception {
+        follower = startFollower(leaderUrl());
+        long first = userService.addUser(newUser(1)).getId();
+        long second = userService.addUser(newUser(2)).getId();
+        Film film = filmService.addFilm(newFilm());
+        filmService.addLike(film.getId(), first);
+        filmService.addLike(film.getId(), second);
+        filmService.removeLike(film.getId(), first);
+        userService.addFriend(first, second);
+        Film renamed = newFilm();
+        renamed.setId(film.getId());
+        renamed.setName("Renamed");
+        filmService.updateFilm(renamed);
+
+        FilmStorage films = follower.getBean(FilmStorage.class);
+        UserStorage users = follower.getBean(UserStorage.class);
+        await(() -> likes(films, film.getId()).equals(Optional.of(Set.of(second)))
+                && "Renamed".equals(films.getFilm(film.getId()).getName()));
+        await(() -> friends(users, first).equals(Optional.of(Set.of(second))));
+        assertEquals(Optional.of(Set.of(first)), friends(users, second));
+    }
+
+    @Test
+    void resyncAfterTruncationReconcilesEdgesAndDeletions() throws Exception {
+        follower = startFollower(leaderUrl());
+        long kept = userService.addUser(newUser(1)).getId();
+        long deleted = userService.addUser(newUser(2)).getId();
+        long liker = userService.addUser(newUser(3)).getId();
+        long filmId = filmService.addFilm(newFilm()).getId();
+        userService.addFriend(kept, deleted);
+        filmService.addLike(filmId, liker);
+        filmService.addLike(filmId, deleted);
+
+        FilmStorage films = follower.getBean(FilmStorage.class);
+        UserStorage users = follower.getBean(UserStorage.class);
+        await(() -> likes(films, filmId).equals(Optional.of(Set.of(liker, deleted))));
+
+        // Пока последователь остановлен, лента лидера переполняется и старые события вытесняются
+        ReplicationFollower replication = follower.getBean(ReplicationFollower.class);
+        replication.stop();
+        deletionService.deleteUser(deleted);
+        filmService.removeLike(filmId, liker);
+        long added = 0;
+        for (int i = 10; i < 30; i++) {
+            added = userService.addUser(newUser(i)).getId();
+        }
+        userService.addFriend(kept, added);
+        filmService.addLike(filmId, added);
+        replication.start();
+
+        long last = added;
+        await(() -> users.findUser(last).isPresent() && likes(films, filmId).equals(Optional.of(Set.of(last))));
+        await(() -> users.findUser(deleted).isEmpty() && friends(users, kept).equals(Optional.of(Set.of(last))));
+        assertEquals(userStorage.getUsers().size(), users.getUsers().size());
+    }
+
+    @Test
+    void readYourWritesAndWriteRedirect() throws Exception {
+        follower = startFollower(leaderUrl());
+        String followerUrl = "http://localhost:" + follower.getEnvironment().getProperty("local.server.port");
+
+        HttpResponse<String> created = client.send(HttpRequest.newBuilder(URI.create(leaderUrl() + "/films"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(newFilm())))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, created.statusCode());
+        String offset = created.headers().firstValue(FeedOffsetFilter.FEED_OFFSET_HEADER).orElseThrow();
+        long filmId = objectMapper.readValue(created.body(), Film.class).getId();
+
+        // С X-Min-Offset последователь дожидается применения записи и отдаёт её
+        HttpResponse<String> read = client.send(HttpRequest.newBuilder(URI.create(followerUrl + "/films/" + filmId))
+                        .header(ReplicaReadInterceptor.MIN_OFFSET_HEADER, offset)
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, read.statusCode());
+        assertEquals(filmId, objectMapper.readValue(read.body(), Film.class).getId());
+        assertTrue(Long.parseLong(read.headers().firstValue(ReplicaReadInterceptor.REPLICA_OFFSET_HEADER)
+                .orElseThrow()) >= Long.parseLong(offset));
+
+        // Запись на последователя перенаправляется на лидера без изменений
+        HttpResponse<String> write = client.send(HttpRequest.newBuilder(URI.create(followerUrl + "/films/1/like/1?x=1"))
+                        .PUT(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(307, write.statusCode());
+        assertEquals(leaderUrl() + "/films/1/like/1?x=1", write.headers().firstValue("Location").orElseThrow());
+    }
+
+    @Test
+    void staleFollowerAnswersServiceUnavailable() throws Exception {
+        // На этом адресе никто не слушает, последователь ни разу не догнал лидера
+        follower = startFollower("http://localhost:1",
+                "--filmorate.replication.max-staleness=PT1S",
+                "--filmorate.replication.read-your-writes-timeout=PT0.2S");
+        String followerUrl = "http://localhost:" + follower.getEnvironment().getProperty("local.server.port");
+
+        HttpResponse<String> stale = client.send(HttpRequest.newBuilder(URI.create(followerUrl + "/films")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(503, stale.statusCode());
+
+        HttpResponse<String> behind = client.send(HttpRequest.newBuilder(URI.create(followerUrl + "/films"))
+                        .header(ReplicaReadInterceptor.MIN_OFFSET_HEADER, "1")
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(503, behind.statusCode());
+
+        HttpResponse<String> health = client.send(
+                HttpRequest.newBuilder(URI.create(followerUrl + "/actuator/health/liveness")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, health.statusCode());
+    }
+
+    private String leaderUrl() {
+        return "http://localhost:" + port;
+    }
+
+    private static ConfigurableApplicationContext startFollower(String leaderUrl, String... extra) {
+        String[] args = new String[extra.length + 4];
+        args[0] = "--server.port=0";
+        args[1] = "--filmorate.replication.leader-url=" + leaderUrl;
+        args[2] = "--filmorate.admission.enabled=false";
+        args[3] = "--filmorate.logging.http.sample-rate=0";
+        System.arraycopy(extra, 0, args, 4, extra.length);
+        return new SpringApplicationBuilder(FilmorateApplication.class).profiles("follower").run(args);
+    }
+
+    private static Optional<Set<Long>> likes(FilmStorage films, long filmId) {
+        return films.findFilm(filmId).map(film -> Set.copyOf(film.getLikes()));
+    }
+
+    private static Optional<Set<Long>> friends(UserStorage users, long userId) {
+        return users.findUser(userId).map(user -> Set.copyOf(user.getFriends()));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Follower did not converge on the leader");
+            Thread.sleep(20);
+        }
+    }
+
+    private static User newUser(int i) {
+        User user = new User();
+        user.setLogin("user" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static Film newFilm() {
+        Film film = new Film();
+        film.setName("Test Film");
+        film.setDescription("This is a test film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.sketch;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.benchmark.ZipfDistribution;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    @Test
+    void exactWhileUnderCapacity() {
+        SpaceSaving sketch = new SpaceSaving(10, 8);
+        for (long user = 1; user <= 3; user++) {
+            sketch.add(1, user);
+        }
+        sketch.add(2, 1);
+        sketch.remove(1);
+
+        List<SpaceSaving.HeavyHitter> top = sketch.top(5);
+        assertEquals(2, top.size());
+        assertEquals(1, top.get(0).item());
+        assertEquals(2, top.get(0).count());
+        assertEquals(0, top.get(0).error());
+        assertEquals(3, top.get(0).distinctMembers());
+    }
+
+    @Test
+    void forgetDropsTheItemAndItsHits() {
+        SpaceSaving sketch = new SpaceSaving(2, 8);
+        for (long user = 1; user <= 3; user++) {
+            sketch.add(1, user);
+        }
+        sketch.add(2, 1);
+        sketch.forget(1);
+        sketch.forget(3);
+
+        assertEquals(1, sketch.getTotal());
+        assertEquals(List.of(2L), sketch.top(5).stream().map(SpaceSaving.HeavyHitter::item).toList());
+        // Освободившийся счётчик достаётся новому элементу без унаследованной ошибки
+        sketch.add(3, 1);
+        SpaceSaving.HeavyHitter added = sketch.top(5).stream()
+                .filter(hitter -> hitter.item() == 3)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, added.count());
+        assertEquals(0, added.error());
+    }
+
+    @Test
+    void heavyHittersSurviveSkewedStreamWithinErrorBound() {
+        SpaceSaving sketch = new SpaceSaving(100, 10);
+        long[] films = new ZipfDistribution(10_000, 1.2, 1).sample(100_000);
+        long[] counts = new long[10_001];
+        for (int i = 0; i < films.length; i++) {
+            sketch.add(films[i], i);
+            counts[(int) films[i]]++;
+        }
+
+        List<SpaceSaving.HeavyHitter> top = sketch.top(3);
+        for (int i = 0; i < top.size(); i++) {
+            SpaceSaving.HeavyHitter hitter = top.get(i);
+            assertEquals(i + 1, hitter.item());
+            long overestimate = hitter.count() - counts[(int) hitter.item()];
+            assertTrue(overestimate >= 0 && overestimate <= hitter.error());
+            assertTrue(hitter.error() <= sketch.getMaxError());
+        }
+    }
+
+    @Test
+    void hyperLogLogStaysWithinThreeStandardErrors() {
+        HyperLogLog hyperLogLog = new HyperLogLog(10);
+        for (long i = 1; i <= 50_000; i++) {
+            hyperLogLog.add(i);
+            hyperLogLog.add(i);
+        }
+
+        double error = Math.abs(hyperLogLog.estimate() - 50_000) / 50_000.0;
+        assertTrue(error < 3 * hyperLogLog.getStandardError(), "relative error " + error);
+    }
+}
@@ -0,0 +1,242 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmField;
+import ru.yandex.practicum.filmorate.model.FilmSummary;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedStorageTest {
+
+    private static final int PARTITIONS = 4;
+
+    @Test
+    void filmsAreSpreadOverPartitionsAndRoutedById() {
+        List<InMemoryFilmStorage> partitions = filmPartitions();
+        PartitionedFilmStorage storage = new PartitionedFilmStorage(
+                partitions.stream().map(LocalFilmPartition::new).toList(), 128);
+        for (int i = 0; i < 1000; i++) {
+            storage.addFilm(new Film());
+        }
+
+        for (InMemoryFilmStorage partition : partitions) {
+            int size = partition.getFilms().size();
+            assertTrue(size > 150 && size < 350, "unbalanced partition of " + size + " films");
+        }
+        assertEquals(1000, storage.getFilms().stream().map(Film::getId).collect(Collectors.toSet()).size());
+        assertEquals(500, storage.getFilm(500).getId());
+        assertThrows(NotFoundException.class, () -> storage.getFilm(1001));
+    }
+
+    @Test
+    void smallIdsAreSpreadOverAllNodes() {
+        // Первые id не должны доставаться одному узлу: партиции заполняются с самого начала
+        assertTrue(Arrays.stream(split(2, 40)).allMatch(count -> count >= 10), Arrays.toString(split(2, 40)));
+        assertTrue(Arrays.stream(split(4, 100)).allMatch(count -> count >= 10), Arrays.toString(split(4, 100)));
+    }
+
+    @Test
+    void restartedCoordinatorResumesIdsPastThePartitions() {
+        List<LocalFilmPartition> partitions = filmPartitions().stream().map(LocalFilmPartition::new).toList();
+        PartitionedFilmStorage storage = new PartitionedFilmStorage(partitions, 128);
+        for (int i = 0; i < 10; i++) {
+            storage.addFilm(new Film());
+        }
+        storage.deleteFilm(10);
+
+        // Новый координатор над теми же партициями не выдаёт уже занятые id, даже удалённые
+        PartitionedFilmStorage restarted = new PartitionedFilmStorage(partitions, 128);
+        assertEquals(11, restarted.addFilm(new Film()).getId());
+        assertEquals(10, restarted.getFilms().size());
+
+        Film duplicate = new Film();
+        duplicate.setId(5);
+        LocalFilmPartition owner = partitions.stream()
+                .filter(partition -> partition.findFilm(5).isPresent())
+                .findFirst()
+                .orElseThrow();
+        assertThrows(ValidationException.class, () -> owner.insertFilm(duplicate));
+    }
+
+    @Test
+    void mostLikedFilmsAreMergedAcrossPartitions() {
+        PartitionedFilmStorage storage = new PartitionedFilmStorage(
+                filmPartitions().stream().map(LocalFilmPartition::new).toList(), 128);
+        InMemoryFilmStorage single = new InMemoryFilmStorage();
+        for (int i = 0; i < 200; i++) {
+            Film film = new Film();
+            for (long user = 0; user < i % 37; user++) {
+                film.getLikes().add(user);
+            }
+            storage.addFilm(film);
+            Film copy = new Film();
+            copy.setLikes(film.getLikes());
+            single.addFilm(copy);
+        }
+
+        assertEquals(ids(single.getMostLikedFilms(10)), ids(storage.getMostLikedFilms(10)));
+        // Five films share the top count of 36 likes; ties come out by id
+        assertEquals(List.of(37L, 74L, 111L, 148L, 185L, 36L), ids(storage.getMostLikedFilms(6)));
+        assertEquals(List.of(36, 36, 36, 36, 36, 35), likeCounts(storage.getMostLikedFilms(6)));
+    }
+
+    @Test
+    void friendshipsAcrossPartitionsStaySymmetric() {
+        List<UserPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions.add(new LocalUserPartition(new InMemoryUserStorage()));
+        }
+        PartitionedUserStorage storage = new PartitionedUserStorage(partitions, 128);
+        for (int i = 0; i < 20; i++) {
+            storage.addUser(new User());
+        }
+
+        for (long friendId = 2; friendId <= 20; friendId++) {
+            assertTrue(storage.addFriend(1, friendId));
+        }
+        assertTrue(storage.removeFriend(5, 1));
+        User updated = new User();
+        updated.setId(1);
+        updated.setLogin("renamed");
+        storage.updateUser(updated);
+
+        assertEquals(18, storage.getUser(1).getFriends().size());
+        for (long friendId : storage.getUser(1).getFriends()) {
+            assertEquals(Set.of(1L), storage.getUser(friendId).getFriends());
+        }
+        assertTrue(storage.getUser(5).getFriends().isEmpty());
+        assertEquals(20, storage.getUsers().size());
+    }
+
+    // Партиции — отдельные контексты с профилем partition-node на случайных портах, координатор ходит к ним по HTTP
+    @Test
+    void partitionsOnOtherNodesAreReachedOverHttp() {
+        List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                nodes.add(new SpringApplicationBuilder(FilmorateApplication.class).profiles("partition-node")
+                        .run("--server.port=0", "--filmorate.admission.enabled=false",
+                                "--filmorate.logging.http.sample-rate=0"));
+            }
+            ObjectMapper mapper = nodes.get(0).getBean(ObjectMapper.class);
+            HttpClient client = HttpClient.newHttpClient();
+            List<FilmPartition> filmNodes = new ArrayList<>();
+            List<UserPartition> userNodes = new ArrayList<>();
+            for (ConfigurableApplicationContext node : nodes) {
+                String url = "http://localhost:" + node.getEnvironment().getProperty("local.server.port");
+                filmNodes.add(new HttpFilmPartition(url, client, mapper, Duration.ofSeconds(5)));
+                userNodes.add(new HttpUserPartition(url, client, mapper, Duration.ofSeconds(5)));
+            }
+            PartitionedFilmStorage films = new PartitionedFilmStorage(filmNodes, 128);
+            PartitionedUserStorage users = new PartitionedUserStorage(userNodes, 128);
+
+            for (int i = 0; i < 40; i++) {
+                Film film = films.addFilm(newFilm("Film " + i));
+                for (long user = 0; user < i % 7; user++) {
+                    films.addLike(film.getId(), user);
+                }
+            }
+            for (ConfigurableApplicationContext node : nodes) {
+                assertFalse(node.getBean(InMemoryFilmStorage.class).getFilms().isEmpty());
+            }
+            assertEquals(List.of(7L, 14L, 21L, 28L, 35L, 6L), ids(films.getMostLikedFilms(6)));
+            assertEquals(List.of(6, 6, 6, 6, 6, 5), likeCounts(films.getMostLikedFilms(6)));
+
+            // Обновление по сети сохраняет лайки, промах превращается обратно в NotFoundException
+            Film renamed = newFilm("Renamed");
+            renamed.setId(7);
+            assertEquals(6, films.updateFilm(renamed).getLikes().size());
+            assertEquals("Renamed", films.getFilm(7).getName());
+            assertThrows(NotFoundException.class, () -> films.getFilm(41));
+            assertThrows(NotFoundException.class, () -> films.addLike(41, 1));
+            List<FilmSummary> summaries = films.getFilmSummaries(EnumSet.of(FilmField.ID, FilmField.DURATION));
+            assertEquals(40, summaries.size());
+            assertEquals(Duration.ofMinutes(120), summaries.get(0).getDuration());
+            assertEquals(7, films.deleteFilm(7).getId());
+            assertTrue(films.findFilm(7).isEmpty());
+
+            for (int i = 0; i < 10; i++) {
+                users.addUser(newUser(i));
+            }
+            for (long friendId = 2; friendId <= 10; friendId++) {
+                assertTrue(users.addFriend(1, friendId));
+            }
+            assertTrue(users.removeFriend(3, 1));
+            assertEquals(8, users.getUser(1).getFriends().size());
+            for (long friendId : users.getUser(1).getFriends()) {
+                assertEquals(Set.of(1L), Set.copyOf(users.getUser(friendId).getFriends()));
+            }
+            assertTrue(users.getUser(3).getFriends().isEmpty());
+            assertEquals(10, users.getUsers().size());
+        } finally {
+            nodes.forEach(ConfigurableApplicationContext::close);
+        }
+    }
+
+    private static List<InMemoryFilmStorage> filmPartitions() {
+        List<InMemoryFilmStorage> partitions = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions.add(new InMemoryFilmStorage());
+        }
+        return partitions;
+    }
+
+    private static int[] split(int nodes, int ids) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            indexes.add(i);
+        }
+        ConsistentHashRing<Integer> ring = new ConsistentHashRing<>(indexes, 128);
+        int[] counts = new int[nodes];
+        for (long id = 1; id <= ids; id++) {
+            counts[ring.nodeFor(id)]++;
+        }
+        return counts;
+    }
+
+    private static List<Long> ids(List<Film> films) {
+        return films.stream().map(Film::getId).toList();
+    }
+
+    private static List<Integer> likeCounts(List<Film> films) {
+        return films.stream().map(film -> film.getLikes().size()).toList();
+    }
+
+    private static Film newFilm(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(Duration.ofMinutes(120));
+        return film;
+    }
+
+    private static User newUser(int i) {
+        User user = new User();
+        user.setLogin("user" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,141 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.config.WireFormatConfiguration;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.metrics.FilmorateMetrics;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredStorageTest {
+
+    private static final int HOT = 3;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry registry;
+    private TieredFilmStorage films;
+    private TieredUserStorage users;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        FilmorateMetrics metrics = new FilmorateMetrics(registry);
+        ObjectMapper mapper = WireFormatConfiguration.smileObjectMapper(new Jackson2ObjectMapperBuilder());
+        films = new TieredFilmStorage(directory, HOT, mapper, metrics);
+        users = new TieredUserStorage(directory, HOT, mapper, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        films.close();
+        users.close();
+    }
+
+    @Test
+    void coldFilmsAreFaultedBackInWithTheirLikes() {
+        for (int i = 1; i <= 10; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setReleaseDate(LocalDate.of(2000, 1, i));
+            film.setDuration(Duration.ofMinutes(90 + i));
+            films.addFilm(film);
+            for (long user = 1; user <= i; user++) {
+                assertTrue(films.addLike(film.getId(), user));
+            }
+        }
+
+        Film first = films.getFilm(1);
+        assertEquals("Film 1", first.getName());
+        assertEquals(LocalDate.of(2000, 1, 1), first.getReleaseDate());
+        assertEquals(Duration.ofMinutes(91), first.getDuration());
+        assertEquals(Set.of(1L), first.getLikes());
+        assertFalse(films.addLike(2, 2));
+        assertTrue(films.removeLike(2, 1));
+        assertEquals(Set.of(2L), films.getFilm(2).getLikes());
+
+        assertEquals(10, films.getFilms().size());
+        assertEquals(10, films.getMostLikedFilms(1).get(0).getLikes().size());
+        assertThrows(NotFoundException.class, () -> films.getFilm(11));
+        assertTrue(registry.get("filmorate.cache").tag("cache", "film-tier").tag("result", "fault")
+                .counter().count() >= 2);
+        assertEquals(HOT, registry.get("filmorate.tier.entities").tag("store", "film").tag("tier", "hot")
+                .gauge().value());
+    }
+
+    @Test
+    void friendshipsStaySymmetricWhenEndsAreEvicted() {
+        for (int i = 0; i < 10; i++) {
+            users.addUser(new User());
+        }
+
+        for (long friendId = 2; friendId <= 10; friendId++) {
+            assertTrue(users.addFriend(1, friendId));
+        }
+        assertFalse(users.addFriend(3, 1));
+        assertTrue(users.removeFriend(5, 1));
+        User updated = new User();
+        updated.setId(1);
+        updated.setLogin("renamed");
+        users.updateUser(updated);
+
+        assertEquals("renamed", users.getUser(1).getLogin());
+        assertEquals(8, users.getUser(1).getFriends().size());
+        for (long friendId : users.getUser(1).getFriends()) {
+            assertEquals(Set.of(1L), users.getUser(friendId).getFriends());
+        }
+        assertTrue(users.getUser(5).getFriends().isEmpty());
+        assertEquals(10, users.getUsers().size());
+    }
+
+    @Test
+    void scansSeeEveryFilmWhileFilmsMoveBetweenTiers() throws InterruptedException {
+        for (int i = 1; i <= 10; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            films.addFilm(film);
+        }
+
+        // Чтения постоянно поднимают холодные фильмы и вытесняют горячие, а обход не должен терять ни одного
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            readers.add(Thread.ofVirtual().start(() -> {
+                while (running.get()) {
+                    films.getFilm(ThreadLocalRandom.current().nextLong(1, 11));
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                assertEquals(10, films.getFilms().size());
+            }
+        } finally {
+            running.set(false);
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+    }
+}